@@ -22,6 +22,9 @@
                 ]
   :main         jaque.main
   :aot          [jaque.main]
+  ; small enough that parallel-test's nouns really get split up
+  :profiles     {:test {:jvm-opts ["-Djaque.parallelThreshold=64"
+                                   "-Djava.util.concurrent.ForkJoinPool.common.parallelism=4"]}}
 
   ;; leinigen's invocation of javac causes some problems for truffle's
   ;; compiler detection. To mitigate this, please run an annotation processor
@@ -0,0 +1,27 @@
+(ns alloc
+  (:require [jaque.noun :refer [noun]])
+  (:import net.frodwith.jaque.truffle.Context
+           java.lang.management.ManagementFactory))
+
+; counts what a warm decrement loop allocates per iteration. Control flow
+; should contribute nothing; what's left is the data (boxed longs, the data
+; stack's cells).
+
+(def dec-formula
+  (noun [8 [1 0] 8 [1 6 [5 [4 0 6] 0 7] [0 6] 9 2 [0 2] [[4 0 6] 0 7]] 9 2 0 1]))
+
+(defn- allocated []
+  (let [bean (ManagementFactory/getThreadMXBean)]
+    (.getThreadAllocatedBytes ^com.sun.management.ThreadMXBean bean
+                              (.getId (Thread/currentThread)))))
+
+(defn -main [& [n rounds]]
+  (let [n      (Long/parseLong (or n "100000"))
+        rounds (Long/parseLong (or rounds "20"))
+        ctx    (doto (Context.) (.wake nil nil false))]
+    (dotimes [i rounds]
+      (let [before (allocated)
+            r      (.nock ctx n dec-formula)
+            after  (allocated)]
+        (println (format "round %d: %s, %.1f bytes/iteration"
+                         i r (/ (double (- after before)) n)))))))
@@ -0,0 +1,38 @@
+(ns bigmath
+  (:import net.frodwith.jaque.data.Atom
+           java.util.Random))
+
+; times schoolbook (MPN) against BigInteger multiplication and division over
+; a range of sizes, to find where jaque.bigMul and jaque.bigDiv should sit.
+; on the machine the defaults came from, BigInteger won past about 64 words
+; for mul and 48 words (of the divisor) for div.
+
+(def sizes [8 16 24 32 48 64 96 128 192 256 512 1024 4096])
+
+(defn- words [^Random r n]
+  (let [w (int-array n)]
+    (dotimes [i n]
+      (aset-int w i (.nextInt r)))
+    (aset-int w (dec n) (bit-or (aget w (dec n)) 1))
+    w))
+
+(defn- best-ns [reps f]
+  ; best of several rounds, so the jit has had its say
+  (apply min (for [_ (range 15)]
+               (let [begin (System/nanoTime)]
+                 (dotimes [_ reps] (f))
+                 (quot (- (System/nanoTime) begin) reps)))))
+
+(defn -main [& _]
+  (let [r (Random. 1)]
+    (println "words\tmul-mpn\tmul-big\tdiv-mpn\tdiv-big (ns)")
+    (doseq [n sizes]
+      (let [x    (words r n)
+            y    (words r n)
+            xx   (words r (* 2 n))
+            reps (max 20 (quot 2000000 (* n n)))]
+        (println (format "%d\t%d\t%d\t%d\t%d" n
+                         (best-ns reps #(Atom/mulWords x y))
+                         (best-ns reps #(Atom/mulBig x y))
+                         (best-ns reps #(Atom/dvrWords xx y))
+                         (best-ns reps #(Atom/dvrBig xx y))))))))
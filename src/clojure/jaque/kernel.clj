@@ -156,7 +156,7 @@
                   (accept [this es] (dispatch!! eff es)))
         init    #(do (when (.execute pre (Wake. (util/read-jets jet) tank-cb eff-cb pro))
                        (let [ctx (.context (.prevalentSystem pre))
-                             k (boot ctx (util/read-jam pil) tac id ticket)
+                             k (boot ctx (.dedup ctx (util/read-jam pil)) tac id ticket)
                              k (boot-poke k eff [[0 :newt (:sen k) 0] :barn 0])
                              k (boot-poke k eff [tir :boot (make-auth k fake)])
                              k (if (:galaxy k)
@@ -200,7 +200,11 @@
                                              (do (wake!) true)
                                              (case v
                                                :ignore true
-                                               nil     (do (.takeSnapshot pre)
+                                               nil     (do (log/info (.codeCacheReport (.context sys)))
+                                                           (log/info (.report (.batteries (.context sys))))
+                                                           (log/info (.memoReport (.context sys)))
+                                                           (log/info (.dedupReport (.context sys)))
+                                                           (.takeSnapshot pre)
                                                            (.close pre)
                                                            (async/close! eff)
                                                            (log/debug "kernel shutdown")
@@ -85,7 +85,7 @@
         ctx  (let [ctx (Context.)]
                (.wake ctx arms nil (boolean (:profile options)))
                ctx)
-        res  (.nock ctx 0 (util/read-jam (:formula options)))]
+        res  (.nock ctx 0 (.dedup ctx (util/read-jam (:formula options))))]
     (println (Noun/toString res))))
 
 (defn exists? [is-dir path]
@@ -146,10 +146,27 @@
                "invalid pier directory"]]
    ["-N" "--formula PATH" "Nock the formula pill file at PATH with ~ subject, print result, and exit."
     :parse-fn io/as-file]
+   ["-T" "--tier TIER" "Execution tier: blok (default), nose, or check (run both and compare)"
+    :validate [#{"blok" "nose" "check"} "tier must be blok, nose, or check"]]
+   ["-C" "--code-cache COUNT" "Maximum number of compiled formulas to keep per tier"
+    :parse-fn #(Long/parseLong %)
+    :validate [pos? "code cache must hold at least one formula"]]
+   ["-W" "--memo-weight WORDS" "Estimated size in words of each memo cache (ut jets, %memo hints)"
+    :parse-fn #(Long/parseLong %)
+    :validate [pos? "memo weight must be positive"]]
+   ["-D" "--dedup" "Share equal subtrees of the pill or snapshot after loading it"]
    ["-h" "--help"]])
 
 (defn -main [& args]
   (let [{:keys [options arguments errors summary]} (cli/parse-opts args cli-options)]
+    (when-let [tier (:tier options)]
+      (System/setProperty "jaque.tier" tier))
+    (when-let [cap (:code-cache options)]
+      (System/setProperty "jaque.codeCache" (str cap)))
+    (when-let [weight (:memo-weight options)]
+      (System/setProperty "jaque.memoWeight" (str weight)))
+    (when (:dedup options)
+      (System/setProperty "jaque.dedup" "true"))
 		(cond 
       (:help options)
         (println summary)
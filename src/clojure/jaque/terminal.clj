@@ -36,6 +36,7 @@
   (line [this text keep?])
   (scroll [this])
   (save [this root-dir path-seq content-bytes])
+  (save-jam [this root-dir path-seq noun])
   (link [this url])
   (dimensions [this])
   (restore [this])
@@ -79,6 +80,9 @@
   (save [this root-dir path-seq content-bytes]
     (let [fil (util/path-seq-to-file root-dir path-seq)]
       (util/write-file fil content-bytes)))
+  (save-jam [this root-dir path-seq noun]
+    (let [fil (util/path-seq-to-file root-dir path-seq)]
+      (util/write-jam fil noun)))
   (restore [this]
     (let [scr ^JaqueScreen this]
       (line this (.lastLine scr) false)
@@ -159,9 +163,8 @@
       "sav" (let [pax (map #(Atom/cordToString %) (List. (.head data)))
                   pad (Atom/toByteArray (.tail data))]
               (save sink save-dir pax pad))
-      "sag" (let [pax (map #(Atom/cordToString %) (List. (.head data)))
-                  pad (Atom/toByteArray (Atom/jam (.tail data)))]
-              (save sink save-dir pax pad))
+      "sag" (let [pax (map #(Atom/cordToString %) (List. (.head data)))]
+              (save-jam sink save-dir pax (.tail data)))
       "url" (link sink data)
       (log/warnf "unhandled blit: %s" tag))))
 
@@ -7,6 +7,7 @@
     (java.nio.file Paths)
     (net.frodwith.jaque
       data.Atom
+      data.Jam
       truffle.driver.Arm
       truffle.driver.NamedArm
       truffle.driver.AxisArm
@@ -45,7 +46,7 @@
         (Atom/fromByteArray Atom/LITTLE_ENDIAN))))
 
 (defn read-jam [file]
-  (Atom/cue (atom-from-file file)))
+  (Jam/cueFile (.toPath (io/file file))))
 
 (defn path-seq-to-file [base pas]
   (let [end  (case (count pas)
@@ -62,6 +63,11 @@
   (with-open [out (io/output-stream file)]
     (.write out byts)))
 
+(defn write-jam [file noun]
+  (.mkdirs (.getParentFile file))
+  (with-open [out (java.io.FileOutputStream. file)]
+    (Jam/jam noun (.getChannel out))))
+
 (defn path-to-noun [base path]
   (let [fpat  (.resolve base path)
         file  (.toFile fpat)
@@ -0,0 +1,37 @@
+(ns limbs
+  (:import net.frodwith.jaque.data.Atom
+           java.util.Random))
+
+; times 32-bit word (MPN) division against the 64-bit limb version, counting
+; the int[] -> long[] -> int[] conversions the limb path pays at Atom's
+; boundary, to find where jaque.limbDiv should sit. on the machine the
+; default came from, limbs broke even at 8 words of divisor and were about
+; twice as fast from 24 words up. multiplication was measured the same way
+; and never came out ahead, so it stays on words.
+
+(def sizes [2 3 4 6 8 12 16 24 32 48 64])
+
+(defn- words [^Random r n]
+  (let [w (int-array n)]
+    (dotimes [i n]
+      (aset-int w i (.nextInt r)))
+    (aset-int w (dec n) (bit-or (aget w (dec n)) 1))
+    w))
+
+(defn- best-ns [reps f]
+  ; best of several rounds, so the jit has had its say
+  (apply min (for [_ (range 15)]
+               (let [begin (System/nanoTime)]
+                 (dotimes [_ reps] (f))
+                 (quot (- (System/nanoTime) begin) reps)))))
+
+(defn -main [& _]
+  (let [r (Random. 1)]
+    (println "words\tdiv-32\tdiv-64 (ns)")
+    (doseq [n sizes]
+      (let [x    (words r (* 2 n))
+            y    (words r n)
+            reps (max 200 (quot 4000000 (* n n)))]
+        (println (format "%d\t%d\t%d" n
+                         (best-ns reps #(Atom/dvrWords x y))
+                         (best-ns reps #(Atom/dvrLimbs x y))))))))
@@ -3,6 +3,11 @@ package net.frodwith.jaque;
 import jnr.ffi.LibraryLoader;
 import jnr.ffi.types.size_t;
 
+import net.frodwith.jaque.ed25519.PureEd;
+
+/* Ed25519 runs in plain java by default. -Djaque.ed25519=native binds
+ * libed25519 (from -Djava.library.path) instead; both produce the same
+ * bytes. */
 public class Ed25519 {
   public static interface Ed {
     void ed25519_create_keypair(byte[] publicKey, byte[] privateKey, byte[] seed);
@@ -11,5 +16,7 @@ public class Ed25519 {
     int  ed25519_verify(byte[] signature, byte[] message, @size_t int len, byte[] publicKey);
   }
   
-  public static final Ed ed = LibraryLoader.create(Ed.class).load("ed25519");
+  public static final Ed ed = "native".equals(System.getProperty("jaque.ed25519"))
+    ? LibraryLoader.create(Ed.class).load("ed25519")
+    : new PureEd();
 }
@@ -62,6 +62,25 @@ public class Block {
   }
   
 
+  // true if nothing in this block needs the trampoline
+  public boolean isStraight() {
+    for ( Op o : body ) {
+      if ( o.tailOnly() ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // precondition: isStraight()
+  public OpNode[] toOps(Context context) {
+    OpNode[] nodes = new OpNode[body.length];
+    for ( int i = 0; i < body.length; ++i ) {
+      nodes[i] = (OpNode) body[i].toNode(context);
+    }
+    return nodes;
+  }
+
   public CallTarget toTarget(Context context) {
     return Truffle.getRuntime().createCallTarget(new BlockRootNode(cps(context)));
   }
@@ -87,10 +106,12 @@ public class Block {
     Object op = src.head, a = src.tail;
     Queue<Op> q = new LinkedList<Op>();
     if ( TypesGen.isCell(op) ) {
+      // head first, as in vere and the nose interpreter (it matters for hints)
       q.add(new Dup());
+      compile(TypesGen.asCell(op)).addTo(q);
+      q.add(new Swap());
       compile(TypesGen.expectCell(a)).addTo(q);
       q.add(new Swap());
-      compile(TypesGen.asCell(op)).addTo(q);
       q.add(new Cons());
     }
     else {
@@ -157,16 +178,27 @@ public class Block {
         case 9: {
           Cell c = TypesGen.expectCell(a);
           Axis ax = new Axis(c.head);
-          compile(TypesGen.expectCell(c.tail)).addTo(q);
-          if ( Fragment.HEAD == ax.iterator().next() ) {
-            q.add(new Call(ax));
-          }
-          else {
+          Cell core = TypesGen.expectCell(c.tail);
+          Trel slam = slamShape(core);
+          if ( Fragment.HEAD != ax.iterator().next() ) {
             // treat out-of-battery kicks as 2
+            compile(core).addTo(q);
             q.add(new Dup());
             q.add(new Frag(ax));
             q.add(new Eval());
           }
+          else if ( null != slam ) {
+            q.add(new Dup());
+            compile(TypesGen.asCell(slam.q)).addTo(q);
+            q.add(new Slam(new Axis(slam.p), new Axis(slam.r), ax));
+          }
+          else if ( isFrag(core) ) {
+            q.add(new Pull(new Axis(core.tail), ax));
+          }
+          else {
+            compile(core).addTo(q);
+            q.add(new Call(ax));
+          }
           break;
         }
         case 11: {
@@ -232,6 +264,33 @@ public class Block {
     return b;
   }
   
+  // [0 a], for any a but 0 and 1
+  private static boolean isFrag(Cell f) {
+    return Noun.equals(0L, f.head)
+        && !TypesGen.isCell(f.tail)
+        && !Noun.equals(0L, f.tail)
+        && !Noun.equals(1L, f.tail);
+  }
+
+  // [[0 battery] sample 0 payload] => [battery sample payload], otherwise null
+  private static Trel slamShape(Cell core) {
+    if ( !TypesGen.isCell(core.head) || !TypesGen.isCell(core.tail) ) {
+      return null;
+    }
+    Cell bat = TypesGen.asCell(core.head),
+         rest = TypesGen.asCell(core.tail);
+    if ( !TypesGen.isCell(rest.head) || !TypesGen.isCell(rest.tail) ) {
+      return null;
+    }
+    Cell pay = TypesGen.asCell(rest.tail);
+    if ( !Noun.equals(0L, bat.head) || !Noun.equals(0L, pay.head)
+        || TypesGen.isCell(bat.tail) || TypesGen.isCell(pay.tail)
+        || Noun.equals(0L, bat.tail) || Noun.equals(0L, pay.tail) ) {
+      return null;
+    }
+    return new Trel(bat.tail, rest.head, pay.tail);
+  }
+
   /* really only used in debugging */
   public String toString() {
     StringBuilder b = new StringBuilder();
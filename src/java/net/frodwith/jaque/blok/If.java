@@ -2,6 +2,7 @@ package net.frodwith.jaque.blok;
 
 import net.frodwith.jaque.truffle.Context;
 import net.frodwith.jaque.truffle.bloc.BlocNode;
+import net.frodwith.jaque.truffle.bloc.BranchNode;
 import net.frodwith.jaque.truffle.bloc.IfNode;
 
 public final class If extends Op {
@@ -12,14 +13,20 @@ public final class If extends Op {
     this.no = no;
   }
   
+  // branches without calls or evals in them can be run inline
   @Override
   public boolean tailOnly() {
-    return true;
+    return !(yes.isStraight() && no.isStraight());
   }
 
   @Override
   public BlocNode toNode(Context context) {
-    return new IfNode(yes.toTarget(context), no.toTarget(context));
+    if ( tailOnly() ) {
+      return new IfNode(yes.toTarget(context), no.toTarget(context));
+    }
+    else {
+      return new BranchNode(yes.toOps(context), no.toOps(context));
+    }
   }
 
   @Override
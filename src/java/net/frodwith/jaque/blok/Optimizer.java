@@ -0,0 +1,246 @@
+package net.frodwith.jaque.blok;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.frodwith.jaque.data.Atom;
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.data.Noun;
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* Peephole pass over compiled blok, run before cps. Block.compile emits the
+ * obvious stack code for every formula, which leaves a lot of shuffling
+ * around (Dup ... Swap Toss for 7s and 2s, Frag after Frag, etc). Rewrites
+ * here must preserve crashes: we only drop ops that can't fail. */
+public final class Optimizer {
+  private static final int UNKNOWN = Integer.MIN_VALUE;
+
+  private Optimizer() {
+  }
+
+  public static Block optimize(Block b) {
+    List<Op> ops = new ArrayList<Op>(Arrays.asList(b.body));
+    for ( Op o : ops ) {
+      if ( o instanceof If ) {
+        If i = (If) o;
+        i.yes = optimize(i.yes);
+        i.no = optimize(i.no);
+      }
+      else if ( o instanceof StartMemo ) {
+        StartMemo m = (StartMemo) o;
+        m.body = optimize(m.body);
+      }
+    }
+    while ( rewrite(ops) ) {
+    }
+    return new Block(ops.toArray(new Op[ops.size()]));
+  }
+
+  // total ops, including those in nested blocks
+  public static int count(Block b) {
+    int n = 0;
+    for ( Op o : b.body ) {
+      ++n;
+      if ( o instanceof If ) {
+        n += count(((If) o).yes) + count(((If) o).no);
+      }
+      else if ( o instanceof StartMemo ) {
+        n += count(((StartMemo) o).body);
+      }
+    }
+    return n;
+  }
+
+  // a rewrite can make a match that starts this many ops before it
+  private static final int WINDOW = 4;
+
+  /* One pass: the peephole rewrites front to back, backing up WINDOW ops
+   * after each one instead of starting over, then every Dup unit at once.
+   * Either can turn up work for the other, so optimize repeats this until
+   * nothing changes; each pass is linear in the ops, give or take the list
+   * shuffling. True if anything was rewritten. */
+  private static boolean rewrite(List<Op> ops) {
+    boolean changed = false;
+    int i = 0;
+    while ( i < ops.size() ) {
+      if ( rewriteAt(ops, i) ) {
+        changed = true;
+        i = Math.max(0, i - WINDOW);
+      }
+      else {
+        ++i;
+      }
+    }
+    return dropUnits(ops) || changed;
+  }
+
+  private static Op at(List<Op> ops, int i) {
+    return ( i < ops.size() ) ? ops.get(i) : null;
+  }
+
+  private static boolean rewriteAt(List<Op> ops, int i) {
+    Op a = at(ops, i), b = at(ops, i+1);
+
+    if ( a instanceof Dup && b instanceof Toss ) {
+      ops.subList(i, i+2).clear();
+      return true;
+    }
+    if ( a instanceof Swap && b instanceof Swap ) {
+      ops.subList(i, i+2).clear();
+      return true;
+    }
+    // swapping two copies of the same thing
+    if ( a instanceof Dup && b instanceof Swap ) {
+      ops.remove(i+1);
+      return true;
+    }
+    // a quote's value is thrown away (or replaced) before anyone sees it
+    if ( a instanceof Quote && ( b instanceof Toss || b instanceof Quote ) ) {
+      ops.remove(i);
+      return true;
+    }
+    if ( a instanceof Frag && b instanceof Frag ) {
+      Object axis = Atom.peg(((Frag) a).axis.atom, ((Frag) b).axis.atom);
+      ops.subList(i, i+2).clear();
+      ops.add(i, new Frag(new Axis(axis)));
+      return true;
+    }
+    if ( a instanceof Frag && b instanceof Call ) {
+      Pull p = new Pull(((Frag) a).axis, ((Call) b).axis);
+      ops.subList(i, i+2).clear();
+      ops.add(i, p);
+      return true;
+    }
+    if ( a instanceof Frag && b instanceof Pull ) {
+      Pull p = (Pull) b;
+      Object axis = Atom.peg(((Frag) a).axis.atom, p.core.atom);
+      ops.subList(i, i+2).clear();
+      ops.add(i, new Pull(new Axis(axis), p.arm));
+      return true;
+    }
+    if ( a instanceof Quote && b instanceof Deep ) {
+      Object v = ((Quote) a).value;
+      ops.subList(i, i+2).clear();
+      ops.add(i, new Quote(Noun.isCell(v) ? Atom.YES : Atom.NO));
+      return true;
+    }
+    if ( a instanceof Quote && b instanceof Bump && Noun.isAtom(((Quote) a).value) ) {
+      Object v = ((Quote) a).value;
+      ops.subList(i, i+2).clear();
+      ops.add(i, new Quote(Atom.increment(v)));
+      return true;
+    }
+    // [2 b [1 c]]: the formula is known, so call it directly
+    if ( a instanceof Quote && b instanceof Eval && TypesGen.isCell(((Quote) a).value) ) {
+      Object v = ((Quote) a).value;
+      ops.subList(i, i+2).clear();
+      ops.add(i, new Toss());
+      ops.add(i+1, new StaticEval(TypesGen.asCell(v)));
+      return true;
+    }
+    // [5 [1 x] 1 y]
+    if ( a instanceof Dup && b instanceof Quote
+        && at(ops, i+2) instanceof Swap
+        && at(ops, i+3) instanceof Quote
+        && at(ops, i+4) instanceof Same ) {
+      boolean same = Noun.equals(((Quote) b).value, ((Quote) at(ops, i+3)).value);
+      ops.subList(i, i+5).clear();
+      ops.add(i, new Quote(same ? Atom.YES : Atom.NO));
+      return true;
+    }
+    return false;
+  }
+
+  /* Dup X Swap Toss, where X only touches the copy, is just X. This is what
+   * 7s and static 2s look like once their formulas have been folded away.
+   *
+   * A Dup's unit ends at the first Swap Toss reached when exactly the copy's
+   * replacement is on top, so long as nothing in between reached under the
+   * copy. Rather than scan ahead from every Dup, this keeps the Dups still
+   * looking for their end on a stack, with the stack height each was at.
+   * An op that looks below a Dup's height rules that Dup out, and the
+   * heights rise toward the top of the stack, so both the match and the
+   * ruling out happen at the top. Units nest, and taking out an inner one
+   * doesn't change what the outer one sees, so they all go together. */
+  private static boolean dropUnits(List<Op> ops) {
+    int n = ops.size(), top = 0, height = 0;
+    int[] dups = new int[n], heights = new int[n];
+    boolean[] drop = new boolean[n];
+    boolean any = false;
+
+    for ( int k = 0; k < n; ++k ) {
+      Op o = ops.get(k);
+      if ( o instanceof Swap && at(ops, k+1) instanceof Toss ) {
+        while ( top > 0 && heights[top-1] >= height ) {
+          --top;
+        }
+        if ( top > 0 && heights[top-1] == height - 1 ) {
+          --top;
+          drop[dups[top]] = drop[k] = drop[k+1] = true;
+          any = true;
+        }
+      }
+      int needs = needs(o),
+          floor = ( UNKNOWN == needs ) ? Integer.MIN_VALUE : height - needs;
+      while ( top > 0 && heights[top-1] > floor ) {
+        --top;
+      }
+      if ( o instanceof Dup ) {
+        dups[top] = k;
+        heights[top++] = height;
+      }
+      height += delta(o);
+    }
+
+    if ( any ) {
+      int w = 0;
+      for ( int k = 0; k < n; ++k ) {
+        if ( !drop[k] ) {
+          ops.set(w++, ops.get(k));
+        }
+      }
+      ops.subList(w, n).clear();
+    }
+    return any;
+  }
+
+  // how many stack items an op looks at
+  private static int needs(Op o) {
+    if ( o instanceof Bail || o instanceof PopPlace ) {
+      return 0;
+    }
+    else if ( o instanceof Dup || o instanceof Toss || o instanceof Frag
+           || o instanceof Quote || o instanceof Deep || o instanceof Bump
+           || o instanceof Slog || o instanceof PushPlace || o instanceof Call
+           || o instanceof StaticEval || o instanceof StartMemo
+           || o instanceof Pull ) {
+      return 1;
+    }
+    else if ( o instanceof Swap || o instanceof Cons || o instanceof Same
+           || o instanceof If || o instanceof Esc || o instanceof Fast
+           || o instanceof Eval || o instanceof FinishMemo
+           || o instanceof Slam ) {
+      return 2;
+    }
+    else {
+      return UNKNOWN;
+    }
+  }
+
+  // net change in stack height
+  private static int delta(Op o) {
+    if ( o instanceof Dup || o instanceof StartMemo ) {
+      return 1;
+    }
+    else if ( o instanceof Toss || o instanceof Cons || o instanceof Same
+           || o instanceof If || o instanceof Esc || o instanceof Fast
+           || o instanceof Slog || o instanceof PushPlace || o instanceof Eval
+           || o instanceof FinishMemo || o instanceof Slam ) {
+      return -1;
+    }
+    else {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package net.frodwith.jaque.blok;
+
+import net.frodwith.jaque.data.Atom;
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.bloc.BlocNode;
+import net.frodwith.jaque.truffle.bloc.PullNode;
+
+/* [9 arm 0 core]: a Frag and a Call in one */
+public final class Pull extends Op {
+  public final Axis core, arm;
+
+  public Pull(Axis core, Axis arm) {
+    this.core = core;
+    this.arm = arm;
+  }
+
+  @Override
+  public boolean tailOnly() {
+    return true;
+  }
+
+  @Override
+  public BlocNode toNode(Context context) {
+    return new PullNode(context, core, arm);
+  }
+
+  @Override
+  public String toString() {
+    return "<Pull " + Atom.toString(core.atom) + " " + Atom.toString(arm.atom) + ">";
+  }
+}
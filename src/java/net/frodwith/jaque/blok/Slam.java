@@ -0,0 +1,36 @@
+package net.frodwith.jaque.blok;
+
+import net.frodwith.jaque.data.Atom;
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.bloc.BlocNode;
+import net.frodwith.jaque.truffle.bloc.SlamNode;
+
+/* [9 arm [0 battery] sample 0 payload], which is how hoon slams gates and
+ * recurses (battery 4/payload 11 and 2/7 respectively). Expects the sample
+ * on top of the subject, and calls [battery sample payload]. */
+public final class Slam extends Op {
+  public final Axis battery, payload, arm;
+
+  public Slam(Axis battery, Axis payload, Axis arm) {
+    this.battery = battery;
+    this.payload = payload;
+    this.arm = arm;
+  }
+
+  @Override
+  public boolean tailOnly() {
+    return true;
+  }
+
+  @Override
+  public BlocNode toNode(Context context) {
+    return new SlamNode(context, battery, payload, arm);
+  }
+
+  @Override
+  public String toString() {
+    return "<Slam " + Atom.toString(battery.atom) + " "
+      + Atom.toString(payload.atom) + " " + Atom.toString(arm.atom) + ">";
+  }
+}
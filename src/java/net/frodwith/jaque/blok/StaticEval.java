@@ -0,0 +1,31 @@
+package net.frodwith.jaque.blok;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Noun;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.bloc.BlocNode;
+import net.frodwith.jaque.truffle.bloc.StaticEvalNode;
+
+/* an Eval whose formula was a quote, so it's known at compile time */
+public final class StaticEval extends Op {
+  public final Cell formula;
+
+  public StaticEval(Cell formula) {
+    this.formula = formula;
+  }
+
+  @Override
+  public boolean tailOnly() {
+    return true;
+  }
+
+  @Override
+  public BlocNode toNode(Context context) {
+    return new StaticEvalNode(context, formula);
+  }
+
+  @Override
+  public String toString() {
+    return "<StaticEval " + Noun.toString(formula) + ">";
+  }
+}
@@ -4,16 +4,13 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.math.BigInteger;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -22,6 +19,8 @@ import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.hash.Hashing;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
@@ -51,51 +50,6 @@ import net.frodwith.jaque.truffle.TypesGen;
 
 public class Atom {
   
-  // next() is destructive - use with care!
-  public static class Counter implements Iterator<Object> {
-    long direct = 0;
-    int[] indirect = null;
-    
-    public Counter() {
-      this(0L);
-    }
-    
-    public Counter(Object initial) {
-      if ( TypesGen.isLong(initial) ) {
-        this.direct = (long) initial;
-      }
-      else {
-        this.indirect = (int[]) initial;
-      }
-    }
-    
-    public Counter(long initial) {
-      this.direct = initial;
-    }
-    
-    public Counter(int[] initial) {
-      this.indirect = Arrays.copyOf(initial, initial.length);
-    }
-
-    @Override
-    public boolean hasNext() {
-      return true;
-    }
-
-    @Override
-    public Object next() {
-      if ( null != indirect ) {
-        return incrementInPlace(indirect);
-      }
-      else if ( 0 == ++direct ) {
-        return indirect = new int[] { 0, 0, 1 };
-      }
-      else {
-        return direct;
-      }
-    }
-  }
-  
   // get two equally sized int[]s for mpn functions
   private static class Square {
     int[] x;
@@ -130,6 +84,28 @@ public class Atom {
   public static final boolean LITTLE_ENDIAN = false;
   
 
+  /* from this many words of divisor up, div, mod and dvr run on 64-bit limbs
+   * (see Limbs), conversions and all. limbs.clj measures where that starts
+   * to pay. */
+  public static final int LIMB_DIV = Integer.getInteger("jaque.limbDiv", 8);
+
+  /* past this many words (of the smaller factor, or of the divisor), mul and
+   * div hand off to BigInteger, which has Karatsuba, Toom-3 and
+   * Burnikel-Ziegler. bigmath.clj measures where the crossovers are. */
+  public static final int BIG_MUL = Integer.getInteger("jaque.bigMul", 64);
+  public static final int BIG_DIV = Integer.getInteger("jaque.bigDiv", 48);
+
+  /* Mugs of indirect atoms at least this many words long are remembered, by
+   * array identity, for as long as the array is alive. Big atoms get mugged
+   * over and over as map keys (gor, mor) and inside memo keys, and FNV costs
+   * a loop per byte. Below this, mugging is cheaper than the lookup.
+   *
+   * The cache is global (every Context and thread shares it) and can't see
+   * writes: an int[] atom must never be mutated once it has been mugged. */
+  public static final int MUG_CACHE_WORDS = Integer.getInteger("jaque.mugCache", 16);
+  private static final Cache<int[], Integer> MUGS =
+    CacheBuilder.newBuilder().weakKeys().build();
+
   public static final long YES = 0L;
   public static final long NO = 1L;
 
@@ -474,61 +450,9 @@ public class Atom {
     }
   }
   
-  @TruffleBoundary
-  private static Cell cue(Map<Object,Object> m, Object a, Object b) throws UnexpectedResultException {
-    Object p, q;
-
-    if ( isZero(cut((byte) 0, b, 1L, a)) ) {
-      Object x = increment(b);
-      Cell   c = rub(x, a);
-
-      p = increment(c.head);
-      q = c.tail;
-      m.put(Noun.key(b), q);
-    }
-    else {
-      Object c = add(2L, b),
-             l = increment(b);
-      
-      if ( isZero(cut((byte) 0, l, 1L, a)) ) {
-        Cell u, v;
-        Object w, x, y;
-        
-        u = cue(m, a, c);
-        x = add(u.head, c);
-        v = cue(m, a, x);
-        w = new Cell(
-            TypesGen.expectCell(u.tail).head,
-            TypesGen.expectCell(v.tail).head);
-        y = add(u.head, v.head);
-        p = add(2L, y);
-        q = w;
-        m.put(Noun.key(b), q);
-      }
-      else {
-        Cell d = rub(c, a);
-        Object x = m.get(Noun.key(d.tail));
-        
-        if ( null == x ) {
-          throw new Bail();
-        }
-
-        p = add(2L, d.head);
-        q = x;
-      }
-    }
-    return new Cell(p, new Cell(q, 0L));
-  }
-  
   @TruffleBoundary
   public static Object cue(Object a) {
-    try {
-      Cell x = cue(new HashMap<Object,Object>(), a, 0L);
-      return TypesGen.expectCell(x.tail).head;
-    }
-    catch ( UnexpectedResultException e ) {
-      throw new Bail();
-    }
+    return Jam.cue(a);
   }
   
   public static Object cut(byte a, Object b, Object c, Object d) {
@@ -646,14 +570,36 @@ public class Atom {
     return div(TypesGen.asImplicitIntArray(a), TypesGen.asImplicitIntArray(b));
   }
   
-  /* This code is substantially adapted from Kawa's IntNum.java -- see the note at
-   * the top of gnu.math.MPN */
   private static Cell divmod(int[] x, int[] y) {
+    if ( y.length >= BIG_DIV ) {
+      return dvrBig(x, y);
+    }
+    else if ( y.length >= LIMB_DIV ) {
+      return dvrLimbs(x, y);
+    }
+    else {
+      return dvrWords(x, y);
+    }
+  }
+
+  public static Cell dvrBig(int[] x, int[] y) {
+    BigInteger[] qr = toBigInteger(x).divideAndRemainder(toBigInteger(y));
+    return new Cell(fromBigInteger(qr[0]), fromBigInteger(qr[1]));
+  }
+
+  public static Cell dvrLimbs(int[] x, int[] y) {
+    long[][] qr = Limbs.divmod(Limbs.fromWords(x), Limbs.fromWords(y));
+    return new Cell(Limbs.toAtom(qr[0]), Limbs.toAtom(qr[1]));
+  }
+
+  /* Schoolbook. This code is substantially adapted from Kawa's IntNum.java
+   * -- see the note at the top of gnu.math.MPN */
+  public static Cell dvrWords(int[] x, int[] y) {
     int xlen = x.length,
         ylen = y.length,
         rlen, qlen;
     int[] xwords = Arrays.copyOf(x, xlen+2),
-          ywords = Arrays.copyOf(y, ylen);
+          ywords = Arrays.copyOf(y, ylen+1);
 
     int nshift = MPN.count_leading_zeros(ywords[ylen-1]);
     if (nshift != 0) {
@@ -714,7 +660,7 @@ public class Atom {
   public static Cell dvr(int[] x, int[] y) {
     int cmp = compare(x,y);
     if ( cmp < 0 ) {
-      return new Cell(0L, y);
+      return new Cell(0L, malt(x));
     }
     else if ( 0 == cmp ) {
       return new Cell(1L, 0L);
@@ -722,7 +668,7 @@ public class Atom {
     else if ( 1 == y.length ) {
       int[] q = new int[x.length];
       int rem = MPN.divmod_1(q, x, x.length, y[0]);
-      return new Cell(malt(q), (long) rem);
+      return new Cell(malt(q), rem & 0xffffffffL);
     }
     else {
       return divmod(x,y);
@@ -730,7 +676,7 @@ public class Atom {
   }
 
   public static Cell dvr(long a, long b) {
-    return new Cell(a / b, a % b);
+    return new Cell(Long.divideUnsigned(a, b), Long.remainderUnsigned(a, b));
   }
   
   public static Cell dvr(Object a, Object b) {
@@ -762,13 +708,18 @@ public class Atom {
     return takeBytes(shr, 32);
   }
   
+  // the met(3, m) bytes of m, which for 0 is none (toByteArray gives one)
+  private static byte[] edMessage(Object m) {
+    return isZero(m) ? new byte[0] : toByteArray(m);
+  }
+
   @TruffleBoundary
   public static Object edSign(Object a, Object b) {
     byte[] sig = new byte[64],
            sed = forceBytes(b, 32),
            pub = new byte[64],
            sec = new byte[64],
-           mes = toByteArray(a);
+           mes = edMessage(a);
     Ed25519.ed.ed25519_create_keypair(pub, sec, sed);
     Ed25519.ed.ed25519_sign(sig, mes, mes.length, pub, sec);
     return takeBytes(sig, 64);
@@ -778,7 +729,7 @@ public class Atom {
   public static Object edVeri(Object s, Object m, Object pk) {
     byte[] sig = forceBytes(s, 64),
            pub = forceBytes(pk, 32),
-           mes = toByteArray(m);
+           mes = edMessage(m);
     
     return ( 1 == Ed25519.ed.ed25519_verify(sig, mes, mes.length, pub) )
         ? YES
@@ -944,6 +895,27 @@ public class Atom {
     return malt(words);
   }
   
+  public static BigInteger toBigInteger(int[] words) {
+    byte[] mag = new byte[words.length << 2];
+    for ( int i = 0, j = mag.length - 1; i < words.length; ++i, j -= 4 ) {
+      int w = words[i];
+      mag[j]   = (byte) w;
+      mag[j-1] = (byte) (w >>> 8);
+      mag[j-2] = (byte) (w >>> 16);
+      mag[j-3] = (byte) (w >>> 24);
+    }
+    return new BigInteger(1, mag);
+  }
+
+  public static Object fromBigInteger(BigInteger b) {
+    byte[] mag = b.toByteArray();
+    int[] words = new int[(mag.length + 3) >>> 2];
+    for ( int i = 0, j = mag.length - 1; j >= 0; ++i, --j ) {
+      words[i >>> 2] |= (mag[j] & 0xff) << ((i & 3) << 3);
+    }
+    return malt(words);
+  }
+
   public static Object fromString(String s) {
     return fromString(s, 10);
   }
@@ -994,14 +966,15 @@ public class Atom {
     }
   }
   
-  public static int[] incrementInPlace(int[] vol) {
+  // only ever on a fresh copy: vol may already have been mugged
+  private static int[] incrementInPlace(int[] vol) {
     for ( int i = 0; i < vol.length; i++ ) {
       if ( 0 != ++vol[i] ) {
         return vol;
       }
     }
     int[] bigger = new int[vol.length + 1];
-    bigger[bigger.length] = 1;
+    bigger[vol.length] = 1;
     return bigger;
   }
   
@@ -1054,72 +1027,9 @@ public class Atom {
     return TypesGen.isLong(atom) && 0L == TypesGen.asLong(atom);
   }
   
-  private static Trel jam(Map<Object,Object> m, Object a, Object b, Object l) {
-    Object c = m.get(a);
-    
-    if ( m.containsKey(a) ) {
-      if ( Noun.isAtom(a) && met(a) <= met(c) ) {
-        return jamFlat(m, a, l);
-      }
-      else {
-        return jamPtr(m, c, l);
-      }
-    }
-    else {
-      m.put(a, b);
-      if ( Noun.isAtom(a) ) {
-        return jamFlat(m, a, l);
-      }
-      else {
-        Cell pair = Cell.orBail(a);
-        return jamPair(m, pair.head, pair.tail, b, l);
-      }     
-    }
-  }
-  
   @TruffleBoundary
   public static Object jam(Object a) {
-    Trel x   = jam(new HashMap<Object,Object>(), a, 0L, 0L);
-    Object q = List.flop(x.q);
-    
-    return can((byte)0, new List(q));
-  }
-  
-  private static Trel jamFlat(Map<Object, Object> m, Object a, Object l) {
-    Cell d     = mat(a);
-    Object x   = increment(d.head),
-           tcc = new Cell(x, lsh((byte) 0, 1, d.tail)),
-           tc  = new Cell(tcc, l);
-    
-    return new Trel(x, tc, 0L);
-  }
-  
-  private static Trel jamPair(Map<Object, Object> m, Object ha, Object ta, Object b, Object l) {
-    Object x, y, z;
-    Cell w;
-    Trel d, e;
-
-    w = new Cell(new Cell(2L, 1L), l);
-    x = add(2L, b);
-    d = jam(m, ha, x, w);
-    y = add(x, d.p);
-    e = jam(m, ta, y, d.q);
-    z = add(d.p, e.p);
-    
-    return new Trel(add(2L, z), e.q, 0L);
-  }
-  
-  private static Trel jamPtr(Map<Object, Object> m, Object uc, Object l) {
-    Cell d, ii, in;
-    Object x, y;
-
-    d = mat(uc);
-    x = lsh((byte)0, 2, d.tail);
-    y = add(2L, d.head);
-    ii = new Cell(y, mix(3L, x));
-    in = new Cell(ii, l);
-    
-    return new Trel(y, in, 0L);
+    return Jam.jam(a);
   }
 
   public static Object lsh(byte bloq, int count, Object atom) {
@@ -1183,32 +1093,6 @@ public class Atom {
     return con(e, d);
   }
   
-  private static Cell mat(Object a) {
-    if ( isZero(a) ) {
-      return new Cell(1L, 1L);
-    }
-    int bi, ci, ui;
-    Object b, c, u, v, w, x, y, z, p, q;
-    
-    bi = met(a);
-    b  = (long) bi;
-    ci = met(b);
-    c  = (long) ci;
-
-    u  = dec(c);
-    ui = Atom.intOrBail(u);
-    v  = add(c, c);
-    w  = bex(ci);
-    x  = end((byte) 0, u, b);
-    y  = lsh((byte) 0, ui, a);
-    z  = mix(x, y);
-
-    p  = add(v, b);
-    q  = cat((byte) 0, w, z);
-    
-    return new Cell(p, q);
-  }
-  
   public static int met(byte bloq, Object atom) {
     int gal, daz;
 
@@ -1298,14 +1182,14 @@ public class Atom {
   public static Object mod(int[] x, int[] y) {
     int cmp = compare(x,y);
     if ( cmp < 0 ) {
-      return y;
+      return malt(x);
     }
     else if ( 0 == cmp ) {
       return 0L;
     }
     else if ( 1 == y.length ) {
       int[] q = new int[x.length];
-      return (long) MPN.divmod_1(q, x, x.length, y[0]);
+      return MPN.divmod_1(q, x, x.length, y[0]) & 0xffffffffL;
     }
     else {
       return divmod(x,y).tail;
@@ -1329,8 +1213,22 @@ public class Atom {
   
   public static int mug(Object atom) {
     int[] words = TypesGen.asImplicitIntArray(atom);
+    if ( words.length >= MUG_CACHE_WORDS ) {
+      return cachedMug(words);
+    }
     return mug_words((int) 2166136261L, words.length, words);
   }
+
+  @TruffleBoundary
+  private static int cachedMug(int[] words) {
+    Integer had = MUGS.getIfPresent(words);
+    if ( null == had ) {
+      int mug = mug_words((int) 2166136261L, words.length, words);
+      MUGS.put(words, mug);
+      return mug;
+    }
+    return had;
+  }
   
   private static int mug_words(int off, int nwd, int[] wod) {
     int has, out; 
@@ -1386,6 +1284,20 @@ public class Atom {
   }
   
   public static Object mul(int[] x, int[] y) {
+    if ( Math.min(x.length, y.length) >= BIG_MUL ) {
+      return mulBig(x, y);
+    }
+    else {
+      return mulWords(x, y);
+    }
+  }
+
+  public static Object mulBig(int[] x, int[] y) {
+    return fromBigInteger(toBigInteger(x).multiply(toBigInteger(y)));
+  }
+
+  // schoolbook
+  public static Object mulWords(int[] x, int[] y) {
     int xlen = x.length,
         ylen = y.length;
     int[] dest = new int[xlen + ylen];
@@ -1405,7 +1317,13 @@ public class Atom {
   }
   
   public static long mul(long a, long b) throws ArithmeticException {
-    return Math.multiplyExact(a, b);
+    // direct atoms are unsigned, so multiplyExact's overflow check is wrong
+    if ( 0 != ((a | b) >>> 32)
+        && 0 != a
+        && Long.compareUnsigned(b, Long.divideUnsigned(-1L, a)) > 0 ) {
+      throw new ArithmeticException();
+    }
+    return a * b;
   }
 
   public static Object mul(Object a, Object b) {
@@ -1607,81 +1525,21 @@ public class Atom {
   }
 
   public static Cell rub(Object a, Object b) {
-    Object c, d, e, w, x, y, z, p, q, m;
-
-    m = add(a, (long) met(b));
-    x = a;
-
-    while ( isZero(cut((byte)0, x, 1L, b)) ) {
-      y = increment(x);
-      
-      //  Sanity check: crash if decoding more bits than available
-      if ( compare(x, m) > 0 ) {
-        throw new Bail();
-      }
-
-      x = y;
-    }
-
-    if ( equals(x, a) ) {
-      return new Cell(1L, 0L);
-    }
-    c = sub(x, a);
-    d = increment(x);
-
-    x = dec(c);
-    y = bex(longOrBail(x));
-    z = cut((byte)0, d, x, b);
-
-    e = add(y, z);
-    w = add(c, c);
-    y = add(w, e);
-    z = add(d, x);
-
-    p = add(w, e);
-    q = cut((byte)0, z, e, b);
-    
-    return new Cell(p, q);
-  }
-  
-  @TruffleBoundary
-  private static byte[] doSha(String algo, byte[] bytes) {
-    try {
-      return MessageDigest.getInstance(algo).digest(bytes);
-    }
-    catch (NoSuchAlgorithmException e) {
-      e.printStackTrace();
-      throw new Bail();
-    }
-  }
-
-  private static Object sha_help(Object len, Object atom, String algo) {
-    int lei = intOrBail(len);
-    byte[] in = forceBytes(atom, lei, true);
-    return Atom.fromByteArray(doSha(algo, in));
+    long[] size = new long[1];
+    Object q = Jam.rub(Slice.of(b), longOrBail(a), size).toAtom();
+    return new Cell(size[0], q);
   }
   
   public static Object shal(Object len, Object atom) {
-    return sha_help(len, atom, "SHA-512");
+    return Hash.shal(len, atom);
   }
   
   public static Object shan(Object atom) {
-    byte[] bytes, hash;
-
-    bytes = Atom.toByteArray(atom);
-    try {
-      hash = MessageDigest.getInstance("SHA-1").digest(bytes);
-      // XX: Why is this backwards?
-      return Atom.fromByteArray(hash, BIG_ENDIAN);
-    }
-    catch (NoSuchAlgorithmException e) {
-      e.printStackTrace();
-      throw new Bail();
-    }
+    return Hash.shan(atom);
   }
 
   public static Object shay(Object len, Object atom) {
-    return sha_help(len, atom, "SHA-256");
+    return Hash.shay(len, atom);
   }
 
   public static int[] slaq(byte bloq, int len) {
@@ -1861,6 +1719,23 @@ public class Atom {
         : NO;
   }
 
+  // ++hor, which orders cells by head and then tail, each by gor
+  public static long hor(Object a, Object b) {
+    if ( Noun.isAtom(a) ) {
+      return Noun.isAtom(b) ? gor(a, b) : YES;
+    }
+    else if ( Noun.isAtom(b) ) {
+      return NO;
+    }
+    else {
+      Cell ac = TypesGen.asCell(a),
+           bc = TypesGen.asCell(b);
+      return Noun.equals(ac.head, bc.head)
+          ? gor(ac.tail, bc.tail)
+          : gor(ac.head, bc.head);
+    }
+  }
+
   public static Object lore(Object lub) {
     int pos = 0;
     Object tez = 0L;
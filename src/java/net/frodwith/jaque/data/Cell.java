@@ -52,6 +52,13 @@ public class Cell implements Serializable {
   }
 
   public static boolean equals(Cell a, Cell b) {
+    return 1 == equals(a, b, Integer.MAX_VALUE);
+  }
+
+  /* Compare at most budget pairs of unmugged cells: 1 if a and b are equal,
+   * 0 if not, -1 if that wasn't enough to tell. Subtrees found equal before
+   * giving up stay unified, so the work isn't all lost. */
+  static int equals(Cell a, Cell b, int budget) {
     Deque<EqFrame> s = new ArrayDeque<EqFrame>();
     s.push(new EqFrame(a, b));
     while ( !s.isEmpty() ) {
@@ -86,29 +93,32 @@ public class Cell implements Serializable {
               continue;
             }
             else {
-              return false;
+              return 0;
             }
           }
 
+          if ( --budget < 0 ) {
+            return -1;
+          }
           frame.returning = true;
           s.push(new EqFrame(ca.tail, cb.tail));
           s.push(new EqFrame(ca.head, cb.head));
         }
         else {
-          return false;
+          return 0;
         }
       }
       else if ( TypesGen.isCell(frame.b) ) {
-        return false;
+        return 0;
       }
       else if ( !Atom.equals(frame.a, frame.b) ) {
-        return false;
+        return 0;
       }
       else {
         s.pop();
       }
     }
-    return true;
+    return 1;
   }
 
   // fast-path: if i am mugged, my head and tail are also mugged
@@ -175,6 +185,13 @@ public class Cell implements Serializable {
   }
 
   public void calculateMug() {
+    calculateMug(Integer.MAX_VALUE);
+  }
+
+  /* Mug at most budget unmugged cells, and say whether that finished the
+   * job. Whatever got mugged before giving up stays mugged, so finishing
+   * later doesn't repeat any of it. */
+  boolean calculateMug(int budget) {
     if ( 0 == mug ) {
       // recursion here can cause stack overflows for large nouns,
       // so we do an explicit iterative post-order traversal
@@ -183,6 +200,9 @@ public class Cell implements Serializable {
       Cell node = this;
       while ( null != node || !s.isEmpty() ) {
         if ( null != node ) {
+          if ( --budget < 0 ) {
+            return false;
+          }
           s.push(node);
           node = shouldMug(node.head);
         }
@@ -200,6 +220,7 @@ public class Cell implements Serializable {
         }
       }
     }
+    return true;
   }
   
   public static int getMug(Cell c) {
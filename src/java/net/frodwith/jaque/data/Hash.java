@@ -0,0 +1,149 @@
+package net.frodwith.jaque.data;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* The sha family from hoon.hoon. Each thread keeps one digest per algorithm
+ * and a scratch buffer, and atoms are fed to the digest a chunk of words at
+ * a time, so hashing a big atom neither looks up a provider nor copies the
+ * whole atom into a byte array first. Digests come out as little-endian
+ * atoms, except for shan's, which hoon reads the other way around. */
+public final class Hash {
+  private static final int SCRATCH = 4096;
+
+  private static final ThreadLocal<Hasher>
+    SHA1   = ThreadLocal.withInitial(() -> new Hasher("SHA-1")),
+    SHA256 = ThreadLocal.withInitial(() -> new Hasher("SHA-256")),
+    SHA512 = ThreadLocal.withInitial(() -> new Hasher("SHA-512"));
+
+  // "og-a" and "og-b", as cords
+  private static final long OG_A = 0x612d676fL,
+                            OG_B = 0x622d676fL;
+
+  private Hash() {
+  }
+
+  private static final class Hasher {
+    final MessageDigest digest;
+    final byte[] scratch = new byte[SCRATCH];
+
+    Hasher(String algo) {
+      try {
+        this.digest = MessageDigest.getInstance(algo);
+      }
+      catch ( NoSuchAlgorithmException e ) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    // the low len bytes of atom, zero-extended if it's shorter than that
+    byte[] hash(Object atom, long len) {
+      int[] words = TypesGen.asImplicitIntArray(atom);
+      int   i     = 0;
+      long  left  = len;
+
+      while ( left > 0 ) {
+        int n = (int) Math.min(left, SCRATCH);
+        int b = 0;
+        for ( ; b + 4 <= n && i < words.length; b += 4 ) {
+          int w = words[i++];
+          scratch[b]     = (byte) w;
+          scratch[b + 1] = (byte) (w >>> 8);
+          scratch[b + 2] = (byte) (w >>> 16);
+          scratch[b + 3] = (byte) (w >>> 24);
+        }
+        if ( b < n ) {
+          int w = ( i < words.length ) ? words[i++] : 0;
+          for ( int k = 0; b < n && k < 4; ++k ) {
+            scratch[b++] = (byte) (w >>> (k << 3));
+          }
+          Arrays.fill(scratch, b, n, (byte) 0);
+        }
+        digest.update(scratch, 0, n);
+        left -= n;
+      }
+      return digest.digest();
+    }
+  }
+
+  @TruffleBoundary
+  public static Object shay(Object len, Object ruz) {
+    return Atom.fromByteArray(SHA256.get().hash(ruz, Atom.longOrBail(len)));
+  }
+
+  public static Object shax(Object ruz) {
+    return shay((long) Atom.met((byte) 3, ruz), ruz);
+  }
+
+  @TruffleBoundary
+  public static Object shal(Object len, Object ruz) {
+    return Atom.fromByteArray(SHA512.get().hash(ruz, Atom.longOrBail(len)));
+  }
+
+  @TruffleBoundary
+  public static Object shan(Object ruz) {
+    byte[] hash = SHA1.get().hash(ruz, Atom.met((byte) 3, ruz));
+    return Atom.fromByteArray(hash, Atom.BIG_ENDIAN);
+  }
+
+  // (shax (mix sal (shax ruz)))
+  public static Object shas(Object sal, Object ruz) {
+    return shax(Atom.mix(sal, shax(ruz)));
+  }
+
+  // (~(raw og (shas sal (mix len ruz))) len)
+  public static Object shaw(Object sal, Object len, Object ruz) {
+    return raw(shas(sal, Atom.mix(len, ruz)), len);
+  }
+
+  /* ++raw:og: b random bits from the seed a, 256 at a time, each block
+   * hashed from the one before it. */
+  @TruffleBoundary
+  public static Object raw(Object a, Object b) {
+    long bits = Atom.longOrBail(b);
+    if ( bits > ((long) Integer.MAX_VALUE << 5) ) {
+      throw new Bail();
+    }
+    int[]  out = new int[(int) ((bits + 31) >>> 5)];
+    Object c   = shas(OG_A, Atom.mix(b, a));
+    int    at  = 0;
+
+    while ( bits > 0 ) {
+      Object d = shas(OG_B, Atom.mix(b, Atom.mix(a, c)));
+      int[]  w = TypesGen.asImplicitIntArray(d);
+      int    n = (int) Math.min(bits, 256),
+             k = (n + 31) >>> 5;
+      System.arraycopy(w, 0, out, at, Math.min(k, w.length));
+      if ( 0 != (n & 31) ) {
+        out[at + k - 1] &= (1 << (n & 31)) - 1;
+      }
+      at += k;
+      bits -= n;
+      b = bits;
+      c = d;
+    }
+    return Atom.malt(out);
+  }
+
+  // ++rad:og: a random number below b, bumping the seed until raw gives one
+  @TruffleBoundary
+  public static Object rad(Object a, Object b) {
+    if ( Atom.isZero(b) ) {
+      throw new Bail();
+    }
+    long met = Atom.met(b);
+    while ( true ) {
+      Object c = raw(a, met);
+      if ( Atom.compare(c, b) < 0 ) {
+        return c;
+      }
+      a = Atom.increment(a);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package net.frodwith.jaque.data;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* Weak hash-consing table for nouns. intern rebuilds a noun bottom up so
+ * that every cell and indirect atom in it is the table's copy, which makes
+ * equal subtrees the same object (and their equality checks reference
+ * comparisons). Entries are bucketed by mug. By the time a cell is looked up
+ * its head and tail are already canonical, so it matches an entry exactly
+ * when their heads and tails are the same objects (or direct atoms). A full
+ * Cell.equals here goes quadratic on long repetitive lists, whose mugs
+ * eventually cycle. Nothing is kept alive by the table, and a bucket is
+ * dropped once everything in it has been collected.
+ *
+ * intern works in place: cells in the noun it's given have their heads and
+ * tails replaced by the canonical copies. That saves building a second copy
+ * of a whole pill, but it means the noun should be one nobody else is
+ * looking at yet, like one just read from disk. The cells' values (and
+ * mugs) don't change, only which objects they point to. */
+public final class Hashcons {
+  private final HashMap<Integer, ArrayList<Entry>> table;
+  private final ReferenceQueue<Object> cleared;
+  private long cellsSeen, cellsSaved, atomsSeen, atomsSaved, atomBytesSaved;
+
+  public Hashcons() {
+    this.table = new HashMap<Integer, ArrayList<Entry>>();
+    this.cleared = new ReferenceQueue<Object>();
+  }
+
+  private static final class Entry extends WeakReference<Object> {
+    final int mug;
+
+    Entry(Object n, int mug, ReferenceQueue<Object> q) {
+      super(n, q);
+      this.mug = mug;
+    }
+  }
+
+  @TruffleBoundary
+  public Object intern(Object noun) {
+    expunge();
+    // every cell gets looked up by mug, so get them all up front
+    Parallel.mug(noun);
+    IdentityHashMap<Object, Object> done = new IdentityHashMap<Object, Object>();
+    ArrayDeque<Object> stack = new ArrayDeque<Object>();
+
+    stack.push(noun);
+    while ( !stack.isEmpty() ) {
+      Object top = stack.peek();
+      if ( TypesGen.isLong(top) || done.containsKey(top) ) {
+        stack.pop();
+      }
+      else if ( TypesGen.isIntArray(top) ) {
+        stack.pop();
+        done.put(top, internAtom(TypesGen.asIntArray(top)));
+      }
+      else {
+        Cell c = TypesGen.asCell(top);
+        boolean ready = true;
+        if ( !isDone(done, c.tail) ) {
+          stack.push(c.tail);
+          ready = false;
+        }
+        if ( !isDone(done, c.head) ) {
+          stack.push(c.head);
+          ready = false;
+        }
+        if ( ready ) {
+          stack.pop();
+          c.head = canonical(done, c.head);
+          c.tail = canonical(done, c.tail);
+          Object had = lookup(Cell.getMug(c), c);
+          ++cellsSeen;
+          if ( had != c ) {
+            ++cellsSaved;
+          }
+          done.put(c, had);
+        }
+      }
+    }
+    return canonical(done, noun);
+  }
+
+  private static boolean isDone(IdentityHashMap<Object, Object> done, Object n) {
+    return TypesGen.isLong(n) || done.containsKey(n);
+  }
+
+  private static Object canonical(IdentityHashMap<Object, Object> done, Object n) {
+    return TypesGen.isLong(n) ? n : done.get(n);
+  }
+
+  private Object internAtom(int[] a) {
+    Object had = lookup(Atom.mug(a), a);
+    ++atomsSeen;
+    if ( had != a ) {
+      ++atomsSaved;
+      atomBytesSaved += (long) a.length << 2;
+    }
+    return had;
+  }
+
+  private static boolean same(Object a, Object b) {
+    if ( TypesGen.isCell(a) ) {
+      if ( !TypesGen.isCell(b) ) {
+        return false;
+      }
+      Cell x = TypesGen.asCell(a),
+           y = TypesGen.asCell(b);
+      return child(x.head, y.head) && child(x.tail, y.tail);
+    }
+    else {
+      return TypesGen.isIntArray(b) && Atom.equals(a, b);
+    }
+  }
+
+  // canonical children are the same object, or the same direct atom
+  private static boolean child(Object a, Object b) {
+    return a == b
+      || ( TypesGen.isLong(a) && TypesGen.isLong(b)
+        && TypesGen.asLong(a) == TypesGen.asLong(b) );
+  }
+
+  // the table's copy of n, which becomes n itself if there isn't one
+  private Object lookup(int mug, Object n) {
+    ArrayList<Entry> bucket = table.get(mug);
+    if ( null == bucket ) {
+      bucket = new ArrayList<Entry>(1);
+      table.put(mug, bucket);
+    }
+    Iterator<Entry> i = bucket.iterator();
+    while ( i.hasNext() ) {
+      Object had = i.next().get();
+      if ( null == had ) {
+        i.remove();
+      }
+      else if ( same(had, n) ) {
+        return had;
+      }
+    }
+    bucket.add(new Entry(n, mug, cleared));
+    return n;
+  }
+
+  // clear out entries the collector has taken, and any buckets they empty
+  private void expunge() {
+    Reference<? extends Object> r;
+    while ( null != (r = cleared.poll()) ) {
+      int mug = ((Entry) r).mug;
+      ArrayList<Entry> bucket = table.get(mug);
+      if ( null == bucket ) {
+        continue;
+      }
+      Iterator<Entry> i = bucket.iterator();
+      while ( i.hasNext() ) {
+        if ( null == i.next().get() ) {
+          i.remove();
+        }
+      }
+      if ( bucket.isEmpty() ) {
+        table.remove(mug);
+      }
+    }
+  }
+
+  // how many mugs have a bucket, for watching the table shrink
+  public int buckets() {
+    expunge();
+    return table.size();
+  }
+
+  public String report() {
+    return String.format(
+      "hashcons: %d cells seen, %d shared (~%dKB); %d indirect atoms seen, %d shared (%dKB of words)",
+      cellsSeen, cellsSaved, (cellsSaved * 24) >>> 10,
+      atomsSeen, atomsSaved, atomBytesSaved >>> 10);
+  }
+}
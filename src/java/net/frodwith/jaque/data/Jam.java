@@ -0,0 +1,456 @@
+package net.frodwith.jaque.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* jam and cue, written as loops over a long bit position. Neither recurses
+ * on the java stack, so deep nouns (long lists, pills) don't overflow it,
+ * and neither does any atom arithmetic on the cursor. jam writes straight
+ * into a growing word buffer; cue reads the source atom through a Slice and
+ * keeps backreferences in a LongTable. Since a Slice can sit on a mapped
+ * file, cueFile decodes a pill without reading it into the heap first, and
+ * jam can likewise stream to a channel instead of building the atom. */
+public final class Jam {
+  private Jam() {
+  }
+
+  @TruffleBoundary
+  public static Object jam(Object a) {
+    Writer w = new Writer(null, false);
+    jam(a, w);
+    return w.toAtom();
+  }
+
+  /* jam a into out, least significant byte first, buffering at most a few
+   * kilobytes of output at a time. Returns the number of bytes written,
+   * which is the same as met(3, jam(a)). */
+  @TruffleBoundary
+  public static long jam(Object a, WritableByteChannel out) throws IOException {
+    Writer w = new Writer(out, false);
+    try {
+      jam(a, w);
+      return w.finish();
+    }
+    catch ( UncheckedIOException e ) {
+      throw e.getCause();
+    }
+  }
+
+  // jam a into the remaining space in buf; overflows if there isn't enough
+  @TruffleBoundary
+  public static long jam(Object a, ByteBuffer buf) {
+    try {
+      return jam(a, new BufferChannel(buf));
+    }
+    catch ( IOException e ) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // how many bytes jam(a) takes, without keeping any of them
+  @TruffleBoundary
+  public static long jamBytes(Object a) {
+    Writer w = new Writer(null, true);
+    jam(a, w);
+    return (w.pos + 7) >>> 3;
+  }
+
+  private static void jam(Object a, Writer w) {
+    HashMap<Object, Long> m = new HashMap<Object, Long>();
+    ArrayDeque<Object> stack = new ArrayDeque<Object>();
+
+    stack.push(a);
+    while ( !stack.isEmpty() ) {
+      Object n = stack.pop(),
+             k = key(n);
+      Long   c = m.get(k);
+
+      if ( null != c ) {
+        if ( Noun.isAtom(n) && Atom.met(n) <= met(c) ) {
+          w.bits(0L, 1);
+          w.mat(n);
+        }
+        else {
+          w.bits(3L, 2);
+          w.mat(c);
+        }
+      }
+      else {
+        m.put(k, w.pos);
+        if ( Noun.isAtom(n) ) {
+          w.bits(0L, 1);
+          w.mat(n);
+        }
+        else {
+          Cell cell = Cell.orBail(n);
+          w.bits(1L, 2);
+          stack.push(cell.tail);
+          stack.push(cell.head);
+        }
+      }
+    }
+  }
+
+  /* Backreferences are by value: an indirect atom equal to one already
+   * written refers back to it even if it's a different array, as in vere.
+   * (Cells and direct atoms already compare by value.) */
+  private static Object key(Object n) {
+    return TypesGen.isIntArray(n) ? Noun.key(n) : n;
+  }
+
+  private static int met(long a) {
+    return 64 - Long.numberOfLeadingZeros(a);
+  }
+
+  @TruffleBoundary
+  public static Object cue(Object a) {
+    return cue(Slice.of(a));
+  }
+
+  // the noun jammed into the remaining bytes of buf (little-endian)
+  @TruffleBoundary
+  public static Object cue(ByteBuffer buf) {
+    return cue(Slice.of(buf));
+  }
+
+  @TruffleBoundary
+  public static Object cueFile(Path file) throws IOException {
+    try ( FileChannel ch = FileChannel.open(file, StandardOpenOption.READ) ) {
+      long len = ch.size();
+      // a single mapping (and the word index in Slice) tops out at 2G
+      if ( len > Integer.MAX_VALUE ) {
+        throw new IOException("jam file too large to map: " + file);
+      }
+      MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, len);
+      return cue(buf);
+    }
+  }
+
+  private static Object cue(Slice s) {
+    LongTable m = new LongTable();
+    long[] size = new long[1];
+    // rub's bound, worked out once: met can scan the whole source
+    long met = s.met();
+
+    // cells waiting on their heads or tails
+    long[] starts = new long[16];
+    Object[] heads = new Object[16];
+    int depth = 0;
+
+    long at = 0;
+    Object pro;
+
+    while ( true ) {
+      if ( !s.bit(at) ) {
+        pro = rub(s, at + 1, met, size).toAtom();
+        m.put(at, pro);
+        at += 1 + size[0];
+      }
+      else if ( !s.bit(at + 1) ) {
+        if ( depth == starts.length ) {
+          starts = Arrays.copyOf(starts, depth * 2);
+          heads = Arrays.copyOf(heads, depth * 2);
+        }
+        starts[depth] = at;
+        heads[depth] = null;
+        ++depth;
+        at += 2;
+        continue;
+      }
+      else {
+        Slice d = rub(s, at + 2, met, size);
+        if ( d.met() > 63 ) {
+          throw new Bail();
+        }
+        pro = m.get(d.getLong(0, 63));
+        if ( null == pro ) {
+          throw new Bail();
+        }
+        at += 2 + size[0];
+      }
+
+      // pro ends at at: hand it to the cells that were waiting for it
+      while ( depth > 0 ) {
+        int top = depth - 1;
+        if ( null == heads[top] ) {
+          heads[top] = pro;
+          break;
+        }
+        pro = new Cell(heads[top], pro);
+        m.put(starts[top], pro);
+        heads[top] = null;
+        --depth;
+      }
+      if ( 0 == depth ) {
+        return pro;
+      }
+    }
+  }
+
+  /* The length-prefixed value at bit a of b, as a view onto b, with the
+   * number of bits the encoding took in size[0]. */
+  static Slice rub(Slice b, long a, long[] size) {
+    return rub(b, a, b.met(), size);
+  }
+
+  // the same, for callers that already know b.met()
+  private static Slice rub(Slice b, long a, long met, long[] size) {
+    long c, d, e, x, m;
+
+    m = a + met;
+    x = a;
+
+    while ( !b.bit(x) ) {
+      //  Sanity check: crash if decoding more bits than available
+      if ( x > m ) {
+        throw new Bail();
+      }
+      ++x;
+    }
+
+    if ( x == a ) {
+      size[0] = 1;
+      return b.end(0);
+    }
+    c = x - a;
+    d = x + 1;
+
+    // the length of the length is at most 64 bits in any atom we could hold
+    if ( c > 64 ) {
+      throw new Bail();
+    }
+    x = c - 1;
+    e = (1L << x) + b.getLong(d, (int) x);
+    if ( e < 0 ) {
+      throw new Bail();
+    }
+
+    size[0] = c + c + e;
+    return b.cut(d + x, e);
+  }
+
+  /* Bits go into words, which covers the output from word base on. With no
+   * channel, words grows to hold everything. With one, full words are
+   * flushed out whenever the buffer fills. Counting writers only move pos. */
+  private static final class Writer {
+    private static final int CHUNK = 2048;
+
+    private final WritableByteChannel out;
+    private final boolean counting;
+    private final ByteBuffer bytes;
+    private int[] words;
+    private long base;
+    long pos;
+
+    Writer(WritableByteChannel out, boolean counting) {
+      this.out = out;
+      this.counting = counting;
+      this.words = counting ? null : new int[( null == out ) ? 16 : CHUNK];
+      this.bytes = ( null == out ) ? null
+        : ByteBuffer.allocate(CHUNK << 2).order(ByteOrder.LITTLE_ENDIAN);
+      this.base = 0;
+      this.pos = 0;
+    }
+
+    private void room(long bits) {
+      if ( counting ) {
+        return;
+      }
+      long need = ((pos + bits + 31) >>> 5) - base;
+      if ( need > words.length && null != out ) {
+        flush();
+        need = ((pos + bits + 31) >>> 5) - base;
+      }
+      if ( need > words.length ) {
+        if ( need > Integer.MAX_VALUE - 8 ) {
+          throw new Bail();
+        }
+        words = Arrays.copyOf(words, (int) Math.max(need, Math.min(words.length * 2L, Integer.MAX_VALUE - 8)));
+      }
+    }
+
+    // send every finished word, keeping the one we're in the middle of
+    private void flush() {
+      int done = (int) ((pos >>> 5) - base);
+      send(done, (long) done << 2);
+      words[0] = ( done < words.length ) ? words[done] : 0;
+      Arrays.fill(words, 1, words.length, 0);
+      base += done;
+    }
+
+    private void send(int nwords, long nbytes) {
+      try {
+        bytes.clear();
+        for ( int i = 0; i < nwords; ++i ) {
+          bytes.putInt(words[i]);
+        }
+        bytes.flip();
+        bytes.limit((int) nbytes);
+        while ( bytes.hasRemaining() ) {
+          out.write(bytes);
+        }
+      }
+      catch ( IOException e ) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    // flush everything, returning the total number of bytes
+    long finish() {
+      long total = (pos + 7) >>> 3;
+      long left  = total - (base << 2);
+      send((int) ((left + 3) >>> 2), left);
+      return total;
+    }
+
+    // the low n (up to 64) bits of v
+    void bits(long v, int n) {
+      if ( counting ) {
+        pos += n;
+        return;
+      }
+      room(n);
+      while ( n > 0 ) {
+        int w = (int) ((pos >>> 5) - base),
+            s = (int) (pos & 31),
+            take = Math.min(32 - s, n);
+        long part = v & ((1L << take) - 1);
+        words[w] |= (int) (part << s);
+        v >>>= take;
+        n -= take;
+        pos += take;
+      }
+    }
+
+    void zeros(long n) {
+      room(n);
+      pos += n;
+    }
+
+    void atom(Object a, long len) {
+      if ( TypesGen.isLong(a) ) {
+        bits(TypesGen.asLong(a), (int) len);
+      }
+      else if ( counting ) {
+        pos += len;
+      }
+      else {
+        int[] src = TypesGen.asIntArray(a);
+        int i = 0;
+        for ( ; len >= 32; len -= 32 ) {
+          bits(src[i++] & 0xffffffffL, 32);
+        }
+        if ( len > 0 ) {
+          bits(src[i] & 0xffffffffL, (int) len);
+        }
+      }
+    }
+
+    void mat(Object a) {
+      if ( Atom.isZero(a) ) {
+        bits(1L, 1);
+        return;
+      }
+      long b = Atom.met(a);
+      int  c = met(b);
+
+      zeros(c);
+      bits(1L, 1);
+      bits(b, c - 1);
+      atom(a, b);
+    }
+
+    Object toAtom() {
+      return Atom.malt(Arrays.copyOf(words, (int) ((pos + 31) >>> 5)));
+    }
+  }
+
+  private static final class BufferChannel implements WritableByteChannel {
+    private final ByteBuffer buf;
+
+    BufferChannel(ByteBuffer buf) {
+      this.buf = buf;
+    }
+
+    public int write(ByteBuffer src) {
+      int n = src.remaining();
+      buf.put(src);
+      return n;
+    }
+
+    public boolean isOpen() {
+      return true;
+    }
+
+    public void close() {
+    }
+  }
+
+  // open-addressed long -> noun map, for cue's backreferences
+  private static final class LongTable {
+    private long[] keys = new long[64];
+    private Object[] vals = new Object[64];
+    private int size = 0;
+
+    // fibonacci hashing: the top bits of the product, as many as we need
+    private static int slot(long k, int mask) {
+      return (int) ((k * 0x9E3779B97F4A7C15L) >>> Long.numberOfLeadingZeros(mask)) & mask;
+    }
+
+    Object get(long k) {
+      int mask = keys.length - 1;
+      for ( int i = slot(k, mask); null != vals[i]; i = (i + 1) & mask ) {
+        if ( keys[i] == k ) {
+          return vals[i];
+        }
+      }
+      return null;
+    }
+
+    void put(long k, Object v) {
+      if ( (size + 1) * 2 > keys.length ) {
+        grow();
+      }
+      int mask = keys.length - 1;
+      int i = slot(k, mask);
+      while ( null != vals[i] ) {
+        if ( keys[i] == k ) {
+          vals[i] = v;
+          return;
+        }
+        i = (i + 1) & mask;
+      }
+      keys[i] = k;
+      vals[i] = v;
+      ++size;
+    }
+
+    private void grow() {
+      long[] ok = keys;
+      Object[] ov = vals;
+      keys = new long[ok.length * 2];
+      vals = new Object[ov.length * 2];
+      size = 0;
+      for ( int i = 0; i < ok.length; ++i ) {
+        if ( null != ov[i] ) {
+          put(ok[i], ov[i]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package net.frodwith.jaque.data;
+
+import java.util.Arrays;
+
+import net.frodwith.jaque.Bail;
+
+/* Indirect atom division on 64-bit limbs (long[], little-endian). Atom
+ * converts to these and back for divisors of LIMB_DIV words or more: the
+ * conversions are linear, and the division loop, with half as many digits
+ * and a proper 128/64 step, more than makes up for them. The 32-bit MPN
+ * routines still do everything else.
+ *
+ * Limb arrays may have zero limbs on top; toAtom trims them. Everything is
+ * unsigned, hence all the compareUnsigned. */
+public final class Limbs {
+  private static final long LOW = 0xffffffffL;
+
+  private Limbs() {
+  }
+
+  public static long[] fromWords(int[] words) {
+    long[] limbs = new long[(words.length + 1) >>> 1];
+    for ( int i = 0; i < words.length; ++i ) {
+      long w = words[i] & LOW;
+      limbs[i >>> 1] |= ( 0 == (i & 1) ) ? w : (w << 32);
+    }
+    return limbs;
+  }
+
+  public static Object toAtom(long[] limbs) {
+    int len = length(limbs);
+    if ( 0 == len ) {
+      return 0L;
+    }
+    else if ( 1 == len ) {
+      return limbs[0];
+    }
+    else {
+      long top = limbs[len-1];
+      int[] words = new int[(len << 1) - ((0 == (top >>> 32)) ? 1 : 0)];
+      for ( int i = 0; i < words.length; ++i ) {
+        long l = limbs[i >>> 1];
+        words[i] = (int) (( 0 == (i & 1) ) ? l : (l >>> 32));
+      }
+      return words;
+    }
+  }
+
+  // number of limbs, not counting zeros on top
+  private static int length(long[] a) {
+    int len = a.length;
+    while ( len > 0 && 0 == a[len-1] ) {
+      --len;
+    }
+    return len;
+  }
+
+  /* High 64 bits of the unsigned 128-bit product. Math.multiplyHigh (and its
+   * unsigned cousin) only exist from JDK 9 on, and we run on JVMCI 8, so this
+   * is the same thing spelled out over 32-bit halves. */
+  private static long multiplyHigh(long a, long b) {
+    long a0 = a & LOW, a1 = a >>> 32,
+         b0 = b & LOW, b1 = b >>> 32;
+    long p00 = a0 * b0,
+         p01 = a0 * b1,
+         p10 = a1 * b0,
+         p11 = a1 * b1;
+    long mid = (p00 >>> 32) + (p01 & LOW) + (p10 & LOW);
+    return p11 + (p01 >>> 32) + (p10 >>> 32) + (mid >>> 32);
+  }
+
+  /* [hi lo] / d for a normalized d (top bit set) and hi < d: the quotient,
+   * with the remainder left in rem[0]. This is divlu from Hacker's Delight,
+   * dividing in 32-bit digits. */
+  private static long divlu(long hi, long lo, long d, long[] rem) {
+    final long b = 1L << 32;
+    long dn1 = d >>> 32, dn0 = d & LOW,
+         un1 = lo >>> 32, un0 = lo & LOW;
+
+    long q1 = Long.divideUnsigned(hi, dn1),
+         rhat = hi - q1 * dn1;
+    while ( q1 >= b || Long.compareUnsigned(q1 * dn0, (rhat << 32) | un1) > 0 ) {
+      --q1;
+      rhat += dn1;
+      if ( rhat >= b ) {
+        break;
+      }
+    }
+
+    long un21 = ((hi << 32) | un1) - q1 * d;
+    long q0 = Long.divideUnsigned(un21, dn1);
+    rhat = un21 - q0 * dn1;
+    while ( q0 >= b || Long.compareUnsigned(q0 * dn0, (rhat << 32) | un0) > 0 ) {
+      --q0;
+      rhat += dn1;
+      if ( rhat >= b ) {
+        break;
+      }
+    }
+
+    rem[0] = ((un21 << 32) | un0) - q0 * d;
+    return (q1 << 32) | q0;
+  }
+
+  private static long[] shiftLeft(long[] a, int len, int s, int extra) {
+    long[] dst = new long[len + extra];
+    if ( 0 == s ) {
+      System.arraycopy(a, 0, dst, 0, len);
+    }
+    else {
+      long over = 0;
+      for ( int i = 0; i < len; ++i ) {
+        dst[i] = (a[i] << s) | over;
+        over = a[i] >>> (64 - s);
+      }
+      if ( extra > 0 ) {
+        dst[len] = over;
+      }
+    }
+    return dst;
+  }
+
+  /* {quotient, remainder}, bailing on division by zero. Knuth's algorithm D
+   * (by way of Hacker's Delight's divmnu) in 64-bit digits. */
+  public static long[][] divmod(long[] a, long[] b) {
+    int m = length(a),
+        n = length(b);
+    if ( 0 == n ) {
+      throw new Bail();
+    }
+    if ( m < n ) {
+      return new long[][] { new long[0], Arrays.copyOf(a, m) };
+    }
+
+    int s = Long.numberOfLeadingZeros(b[n-1]);
+    long[] vn = shiftLeft(b, n, s, 0),
+           un = shiftLeft(a, m, s, 1),
+           q  = new long[m - n + 1],
+           rem = new long[1];
+
+    if ( 1 == n ) {
+      long r = un[m];
+      for ( int j = m - 1; j >= 0; --j ) {
+        q[j] = divlu(r, un[j], vn[0], rem);
+        r = rem[0];
+      }
+      return new long[][] { q, new long[] { r >>> s } };
+    }
+
+    long top = vn[n-1], next = vn[n-2];
+    for ( int j = m - n; j >= 0; --j ) {
+      long qhat, rhat;
+      boolean big;
+      if ( un[j+n] == top ) {
+        // the estimate would be b or more, which doesn't fit in a digit
+        qhat = -1L;
+        rhat = un[j+n-1] + top;
+        big  = Long.compareUnsigned(rhat, top) < 0;
+      }
+      else {
+        qhat = divlu(un[j+n], un[j+n-1], top, rem);
+        rhat = rem[0];
+        big  = false;
+      }
+      while ( !big ) {
+        long phi = multiplyHigh(qhat, next),
+             plo = qhat * next;
+        int c = Long.compareUnsigned(phi, rhat);
+        if ( c < 0 || (0 == c && Long.compareUnsigned(plo, un[j+n-2]) <= 0) ) {
+          break;
+        }
+        --qhat;
+        long r = rhat + top;
+        big = Long.compareUnsigned(r, rhat) < 0;
+        rhat = r;
+      }
+
+      // multiply and subtract
+      long carry = 0, borrow = 0;
+      for ( int i = 0; i < n; ++i ) {
+        long plo = qhat * vn[i],
+             phi = multiplyHigh(qhat, vn[i]);
+        plo += carry;
+        if ( Long.compareUnsigned(plo, carry) < 0 ) {
+          ++phi;
+        }
+        carry = phi;
+        long x = un[i+j];
+        un[i+j] = x - plo - borrow;
+        borrow = ( Long.compareUnsigned(x, plo) < 0 || (1 == borrow && x == plo) ) ? 1 : 0;
+      }
+      long x = un[j+n];
+      un[j+n] = x - carry - borrow;
+      borrow = ( Long.compareUnsigned(x, carry) < 0 || (1 == borrow && x == carry) ) ? 1 : 0;
+
+      if ( 0 != borrow ) {
+        // qhat was one too big, add a divisor back
+        --qhat;
+        long c = 0;
+        for ( int i = 0; i < n; ++i ) {
+          long y = un[i+j],
+               t = y + vn[i] + c;
+          c = ( Long.compareUnsigned(t, y) < 0 || (1 == c && t == y) ) ? 1 : 0;
+          un[i+j] = t;
+        }
+        un[j+n] += c;
+      }
+      q[j] = qhat;
+    }
+
+    long[] r = new long[n];
+    if ( 0 == s ) {
+      System.arraycopy(un, 0, r, 0, n);
+    }
+    else {
+      for ( int i = 0; i < n; ++i ) {
+        r[i] = (un[i] >>> s) | (un[i+1] << (64 - s));
+      }
+    }
+    return new long[][] { q, r };
+  }
+}
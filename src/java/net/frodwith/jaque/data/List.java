@@ -67,12 +67,13 @@ public class List implements Iterable<Object> {
   
   public static Object turn(Function<Object,Object> f, Object list) {
     Deque<Object> s = new ArrayDeque<Object>();
+    // apply f front to back, as the hoon does
     for ( Object i : new List(list) ) {
-      s.push(i);
+      s.push(f.apply(i));
     }
     Object r = 0L;
     while ( !s.isEmpty() ) {
-      r = new Cell(f.apply(s.pop()), r);
+      r = new Cell(s.pop(), r);
     }
     return r;
   }
@@ -108,15 +109,35 @@ public class List implements Iterable<Object> {
   }
 
   public static Object lent(Object ram) {
-    Iterator<Object> i = new List(ram).iterator();
-    Iterator<Object> c = new Atom.Counter();
-    Object r = 0L;
-    
-    while ( i.hasNext() ) {
-      r = c.next();
-      i.next();
+    long r = 0;
+    for ( Object i : new List(ram) ) {
+      ++r;
     }
+    return r;
+  }
 
+  // the item at index a, crashing if the list is too short
+  public static Object snag(Object a, Object b) {
+    while ( !Atom.isZero(a) ) {
+      b = Cell.orBail(b).tail;
+      a = Atom.dec(a);
+    }
+    return Cell.orBail(b).head;
+  }
+
+  // the first a items
+  public static Object scag(Object a, Object b) {
+    Deque<Object> s = new ArrayDeque<Object>();
+    while ( !Atom.isZero(a) && Noun.isCell(b) ) {
+      Cell c = Cell.orBail(b);
+      s.push(c.head);
+      b = c.tail;
+      a = Atom.dec(a);
+    }
+    Object r = 0L;
+    while ( !s.isEmpty() ) {
+      r = new Cell(s.pop(), r);
+    }
     return r;
   }
 
@@ -86,6 +86,31 @@ public class Noun {
     }
   }
 
+  /* Rough size of a noun in 32-bit words, for weighing cache entries: three
+   * for each cell, one for a direct atom, length for an indirect one. Shared
+   * subtrees are counted each time they're reached, so we give up at limit
+   * rather than walk a big dag in its entirety. */
+  public static int weigh(Object noun, int limit) {
+    Deque<Object> s = new ArrayDeque<Object>();
+    int words = 0;
+    s.push(noun);
+    while ( !s.isEmpty() && words < limit ) {
+      Object n = s.pop();
+      if ( TypesGen.isCell(n) ) {
+        Cell c = TypesGen.asCell(n);
+        words += 3;
+        s.push(c.tail);
+        s.push(c.head);
+      }
+      else if ( TypesGen.isIntArray(n) ) {
+        words += TypesGen.asIntArray(n).length;
+      }
+      else {
+        words += 1;
+      }
+    }
+    return Math.min(words, limit);
+  }
   
   /* used by both atom and cell mug methods, so package scope */
   static int mug_fnv(int has) {
@@ -0,0 +1,183 @@
+package net.frodwith.jaque.data;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* Fork-join mug, for one-off passes over a whole big noun (a freshly cued
+ * pill, the batteries in a restored snapshot). Each task walks down a tail
+ * spine, mugging each head itself unless that takes more than THRESHOLD
+ * cells, in which case the rest of the head goes to another worker; then
+ * it fills in the spine's mugs bottom up. Giving up on a head keeps what
+ * was already mugged, so sizing a subtree costs nothing extra. Tasks may
+ * race to mug a shared subtree; they all store the same value, and join()
+ * publishes every store to the joining thread.
+ *
+ * Equality (check mode's comparison of two big products) splits the same
+ * way, down both spines at once, with a shared flag so every task quits as
+ * soon as one finds a difference. Cell.equals unifies the equal subtrees it
+ * finds; two tasks doing that to a shared subtree store equal nouns, so
+ * either write is fine. */
+public final class Parallel {
+  private static final int THRESHOLD = Integer.getInteger("jaque.parallelThreshold", 1 << 14);
+  // past this many nested forks, just finish sequentially
+  private static final int MAX_DEPTH = 32;
+  // with one worker, splitting only adds overhead
+  private static final boolean SPLIT = ForkJoinPool.getCommonPoolParallelism() > 1;
+
+  private Parallel() {
+  }
+
+  @TruffleBoundary
+  public static int mug(Object noun) {
+    if ( TypesGen.isCell(noun) ) {
+      Cell c = TypesGen.asCell(noun);
+      if ( !SPLIT ) {
+        c.calculateMug();
+      }
+      else if ( !c.calculateMug(THRESHOLD) ) {
+        ForkJoinPool.commonPool().invoke(new MugTask(c, 0));
+      }
+      return c.mug;
+    }
+    else {
+      return Atom.mug(noun);
+    }
+  }
+
+  @TruffleBoundary
+  public static boolean equals(Object a, Object b) {
+    if ( !SPLIT || !TypesGen.isCell(a) || !TypesGen.isCell(b) ) {
+      return Noun.equals(a, b);
+    }
+    int e = Cell.equals(TypesGen.asCell(a), TypesGen.asCell(b), THRESHOLD);
+    if ( e >= 0 ) {
+      return 1 == e;
+    }
+    return ForkJoinPool.commonPool().invoke(new EqTask(a, b, 0, new AtomicBoolean()));
+  }
+
+  private static final class MugTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Cell root;
+    private final int depth;
+
+    MugTask(Cell root, int depth) {
+      this.root = root;
+      this.depth = depth;
+    }
+
+    @Override
+    protected void compute() {
+      ArrayList<Cell> spine = new ArrayList<Cell>();
+      ArrayList<MugTask> forks = new ArrayList<MugTask>();
+      Cell c = root;
+
+      while ( 0 == c.mug ) {
+        if ( depth >= MAX_DEPTH ) {
+          c.calculateMug();
+          break;
+        }
+        spine.add(c);
+        if ( TypesGen.isCell(c.head) ) {
+          Cell h = TypesGen.asCell(c.head);
+          if ( !h.calculateMug(THRESHOLD) ) {
+            MugTask t = new MugTask(h, depth + 1);
+            t.fork();
+            forks.add(t);
+          }
+        }
+        if ( !TypesGen.isCell(c.tail) ) {
+          break;
+        }
+        c = TypesGen.asCell(c.tail);
+      }
+
+      for ( MugTask t : forks ) {
+        t.join();
+      }
+      // children are all mugged now, so each of these is constant work
+      for ( int i = spine.size() - 1; i >= 0; --i ) {
+        spine.get(i).calculateMug();
+      }
+    }
+  }
+
+  private static final class EqTask extends RecursiveTask<Boolean> {
+    private static final long serialVersionUID = 1L;
+    private final Object a, b;
+    private final int depth;
+    // set by whichever task finds a difference first, so the rest can quit
+    private final AtomicBoolean differ;
+
+    EqTask(Object a, Object b, int depth, AtomicBoolean differ) {
+      this.a = a;
+      this.b = b;
+      this.depth = depth;
+      this.differ = differ;
+    }
+
+    private Boolean fail() {
+      differ.set(true);
+      return false;
+    }
+
+    @Override
+    protected Boolean compute() {
+      if ( depth >= MAX_DEPTH ) {
+        return Noun.equals(a, b) ? !differ.get() : fail();
+      }
+      ArrayList<EqTask> forks = new ArrayList<EqTask>();
+      Object x = a, y = b;
+
+      while ( x != y ) {
+        if ( differ.get() ) {
+          return false;
+        }
+        if ( !TypesGen.isCell(x) || !TypesGen.isCell(y) ) {
+          if ( !Noun.equals(x, y) ) {
+            return fail();
+          }
+          break;
+        }
+        Cell cx = TypesGen.asCell(x),
+             cy = TypesGen.asCell(y);
+        if ( 0 != cx.mug && 0 != cy.mug ) {
+          if ( !Cell.equalsMugged(cx, cy) ) {
+            return fail();
+          }
+          break;
+        }
+        if ( TypesGen.isCell(cx.head) && TypesGen.isCell(cy.head) ) {
+          switch ( Cell.equals(TypesGen.asCell(cx.head), TypesGen.asCell(cy.head), THRESHOLD) ) {
+            case 0:
+              return fail();
+            case -1:
+              EqTask t = new EqTask(cx.head, cy.head, depth + 1, differ);
+              t.fork();
+              forks.add(t);
+              break;
+          }
+        }
+        else if ( !Noun.equals(cx.head, cy.head) ) {
+          return fail();
+        }
+        x = cx.tail;
+        y = cy.tail;
+      }
+
+      for ( EqTask t : forks ) {
+        if ( !t.join() ) {
+          return fail();
+        }
+      }
+      return !differ.get();
+    }
+  }
+}
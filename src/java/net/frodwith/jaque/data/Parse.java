@@ -1,7 +1,13 @@
 package net.frodwith.jaque.data;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+/* The ++rule combinators from hoon.hoon. A nail is [hair tape], a hair is
+ * [line column], and an edge is [hair (unit [result nail])]. Gates that
+ * come in as samples are passed here as functions that slam them. */
 public class Parse {
 
   public static Object compFun(Function<Object,Object> raq, Cell edge, Function<Object,Object> rule) {
@@ -25,6 +31,215 @@ public class Parse {
     }
   }
 
+  public static Object pfix(Cell vex, Function<Object,Object> sab) {
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    Cell yit = Cell.orBail(sab.apply(nail(vex)));
+    return new Cell(last(Cell.orBail(yit.head), Cell.orBail(vex.head)), yit.tail);
+  }
+
+  public static Object plug(Cell vex, Function<Object,Object> sab) {
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    Cell uqvex = Cell.orBail(Cell.orBail(vex.tail).tail),
+         yit   = Cell.orBail(sab.apply(uqvex.tail));
+    Object yur = last(Cell.orBail(vex.head), Cell.orBail(yit.head));
+
+    if ( Noun.isAtom(yit.tail) ) {
+      return new Cell(yur, yit.tail);
+    }
+    Cell uqyit = Cell.orBail(Cell.orBail(yit.tail).tail);
+    return new Qual(yur, 0L, new Cell(uqvex.head, uqyit.head), uqyit.tail).toCell();
+  }
+
+  public static Object sfix(Cell vex, Function<Object,Object> sab) {
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    Cell uqvex = Cell.orBail(Cell.orBail(vex.tail).tail),
+         yit   = Cell.orBail(sab.apply(uqvex.tail));
+    Object yur = last(Cell.orBail(vex.head), Cell.orBail(yit.head));
+
+    if ( Noun.isAtom(yit.tail) ) {
+      return new Cell(yur, 0L);
+    }
+    Cell uqyit = Cell.orBail(Cell.orBail(yit.tail).tail);
+    return new Qual(yur, 0L, uqvex.head, uqyit.tail).toCell();
+  }
+
+  // roq kicks the second rule, which already has its nail
+  public static Object pose(Cell vex, Supplier<Object> roq) {
+    if ( Noun.isCell(vex.tail) ) {
+      return vex;
+    }
+    Cell r = Cell.orBail(roq.get());
+    return new Cell(last(Cell.orBail(vex.head), Cell.orBail(r.head)), r.tail);
+  }
+
+  public static Object bendFun(Function<Object,Object> raq, Cell vex, Function<Object,Object> sab) {
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    Cell uqvex = Cell.orBail(Cell.orBail(vex.tail).tail),
+         yit   = Cell.orBail(sab.apply(uqvex.tail));
+    Object yur = last(Cell.orBail(vex.head), Cell.orBail(yit.head));
+
+    if ( Noun.isAtom(yit.tail) ) {
+      return new Cell(yur, vex.tail);
+    }
+    Cell uqyit = Cell.orBail(Cell.orBail(yit.tail).tail);
+    Object vux = raq.apply(new Cell(uqvex.head, uqyit.head));
+    if ( Noun.isAtom(vux) ) {
+      return new Cell(yur, vex.tail);
+    }
+    return new Qual(yur, 0L, Cell.orBail(vux).tail, uqyit.tail).toCell();
+  }
+
+  // (plug vex ;~(pfix bus sab))
+  public static Object glueFun(Function<Object,Object> bus, Cell vex, Function<Object,Object> sab) {
+    return plug(vex, (tub) -> pfix(Cell.orBail(bus.apply(tub)), sab));
+  }
+
+  public static Object coldFun(Object cus, Function<Object,Object> sef, Object tub) {
+    Cell vex = Cell.orBail(sef.apply(tub));
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    return new Qual(vex.head, 0L, cus, nail(vex)).toCell();
+  }
+
+  public static Object cookFun(Function<Object,Object> poq, Function<Object,Object> sef, Object tub) {
+    Cell vex = Cell.orBail(sef.apply(tub));
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    Cell uqvex = Cell.orBail(Cell.orBail(vex.tail).tail);
+    return new Qual(vex.head, 0L, poq.apply(uqvex.head), uqvex.tail).toCell();
+  }
+
+  public static Object stagFun(Object gob, Function<Object,Object> sef, Object tub) {
+    Cell vex = Cell.orBail(sef.apply(tub));
+    if ( Noun.isAtom(vex.tail) ) {
+      return vex;
+    }
+    Cell uqvex = Cell.orBail(Cell.orBail(vex.tail).tail);
+    return new Qual(vex.head, 0L, new Cell(gob, uqvex.head), uqvex.tail).toCell();
+  }
+
+  public static Object easyFun(Object huf, Object tub) {
+    return new Qual(Cell.orBail(tub).head, 0L, huf, tub).toCell();
+  }
+
+  /* fel as many times as it will go. The hoon recurses once per match and
+   * folds with raq on the way out; this keeps the matches on a stack. */
+  public static Object stirFun(Object rud, Function<Object,Object> raq, Function<Object,Object> fel, Object tub) {
+    Deque<Cell> vexes = new ArrayDeque<Cell>();
+    Cell wag;
+    while ( true ) {
+      Cell vex = Cell.orBail(fel.apply(tub));
+      if ( Noun.isAtom(vex.tail) ) {
+        wag = new Qual(vex.head, 0L, rud, tub).toCell();
+        break;
+      }
+      vexes.push(vex);
+      tub = nail(vex);
+    }
+    while ( !vexes.isEmpty() ) {
+      Cell vex   = vexes.pop(),
+           uqvex = Cell.orBail(Cell.orBail(vex.tail).tail),
+           uqwag = Cell.orBail(Cell.orBail(wag.tail).tail);
+      Object yur = last(Cell.orBail(vex.head), Cell.orBail(wag.head));
+      wag = new Qual(yur, 0L, raq.apply(new Cell(uqvex.head, uqwag.head)), uqwag.tail).toCell();
+    }
+    return wag;
+  }
+
+  public static Object fail(Object tub) {
+    return new Cell(Cell.orBail(tub).head, 0L);
+  }
+
+  public static Object next(Object tub) {
+    Cell nail = Cell.orBail(tub);
+    if ( Noun.isAtom(nail.tail) ) {
+      return fail(tub);
+    }
+    Cell q = Cell.orBail(nail.tail);
+    Object zac = lust(q.head, Cell.orBail(nail.head));
+    return new Qual(zac, 0L, q.head, new Cell(zac, q.tail)).toCell();
+  }
+
+  public static Object justFun(Object daf, Object tub) {
+    Object c = first(tub);
+    return ( null != c && Atom.equals(daf, c) ) ? next(tub) : fail(tub);
+  }
+
+  public static Object maskFun(Object bud, Object tub) {
+    Object c = first(tub);
+    if ( null != c ) {
+      for ( Object b : new List(bud) ) {
+        if ( Atom.equals(b, c) ) {
+          return next(tub);
+        }
+      }
+    }
+    return fail(tub);
+  }
+
+  public static Object shimFun(Object zep, Object tub) {
+    Object c = first(tub);
+    Cell z = Cell.orBail(zep);
+    return ( null != c && Atom.compare(c, z.head) >= 0 && Atom.compare(c, z.tail) <= 0 )
+      ? next(tub)
+      : fail(tub);
+  }
+
+  /* The rule in stew's treap whose key covers the first character of tub,
+   * or null if there isn't one (or no character). */
+  public static Object stewRule(Object hel, Object tub) {
+    Object c = first(tub);
+    if ( null == c ) {
+      return null;
+    }
+    while ( Noun.isCell(hel) ) {
+      Cell tree = Cell.orBail(hel),
+           n    = Cell.orBail(tree.head),
+           lr   = Cell.orBail(tree.tail);
+      Object lo, hi;
+      if ( Noun.isAtom(n.head) ) {
+        lo = hi = n.head;
+      }
+      else {
+        Cell range = Cell.orBail(n.head);
+        lo = range.head;
+        hi = range.tail;
+      }
+      if ( Atom.compare(c, lo) >= 0 && Atom.compare(c, hi) <= 0 ) {
+        return n.tail;
+      }
+      hel = ( Atom.compare(c, lo) < 0 ) ? lr.head : lr.tail;
+    }
+    return null;
+  }
+
+  // the first character of tub's tape, or null at the end
+  private static Object first(Object tub) {
+    Object q = Cell.orBail(tub).tail;
+    return Noun.isCell(q) ? Cell.orBail(q).head : null;
+  }
+
+  // q.u.q.vex, the nail left over after a successful parse
+  private static Object nail(Cell vex) {
+    return Cell.orBail(Cell.orBail(vex.tail).tail).tail;
+  }
+
+  private static Object lust(Object weq, Cell haz) {
+    return Atom.equals(10L, weq)
+      ? new Cell(Atom.increment(haz.head), 1L)
+      : new Cell(haz.head, Atom.increment(haz.tail));
+  }
+
   private static Object last(Cell zyc, Cell naz) {
     long pzyc = Atom.longOrBail(zyc.head),
          qzyc = Atom.longOrBail(zyc.tail),
@@ -0,0 +1,153 @@
+package net.frodwith.jaque.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* A read-only window onto some of an atom's bits. Cutting, shifting and
+ * ending a slice just makes another window onto the same words, so code that
+ * walks a big atom a few bits at a time (cue, rub) doesn't copy anything
+ * until a piece escapes into a noun through toAtom. Bits past the end of the
+ * words read as zero, like they do in chop.
+ *
+ * The words can also come from a little-endian ByteBuffer (a mapped pill,
+ * say), so a jammed file can be cued without ever being an atom. */
+public final class Slice {
+  private final int[] words;
+  private final ByteBuffer bytes;
+  private final long offset, length;
+
+  private Slice(int[] words, ByteBuffer bytes, long offset, long length) {
+    this.words = words;
+    this.bytes = bytes;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  private Slice(int[] words, long offset, long length) {
+    this(words, null, offset, length);
+  }
+
+  private Slice(Slice of, long offset, long length) {
+    this(of.words, of.bytes, offset, length);
+  }
+
+  public static Slice of(Object atom) {
+    if ( TypesGen.isLong(atom) ) {
+      long v = TypesGen.asLong(atom);
+      return new Slice(new int[] { (int) v, (int) (v >>> 32) }, 0, 64);
+    }
+    else {
+      int[] w = TypesGen.asIntArray(atom);
+      return new Slice(w, 0, (long) w.length << 5);
+    }
+  }
+
+  // the bytes between buf's position and limit, least significant first
+  public static Slice of(ByteBuffer buf) {
+    ByteBuffer b = buf.slice().order(ByteOrder.LITTLE_ENDIAN);
+    return new Slice(null, b, 0, (long) b.limit() << 3);
+  }
+
+  // width of the window, not all of which need be significant
+  public long length() {
+    return length;
+  }
+
+  public boolean bit(long i) {
+    if ( i < 0 || i >= length ) {
+      return false;
+    }
+    long at = offset + i;
+    return 0 != ((word(at) >>> (at & 31)) & 1);
+  }
+
+  // the word containing bit at
+  private int word(long at) {
+    long w = at >>> 5;
+    if ( null != words ) {
+      return ( w < words.length ) ? words[(int) w] : 0;
+    }
+    long i = w << 2;
+    int lim = bytes.limit();
+    if ( i + 4 <= lim ) {
+      return bytes.getInt((int) i);
+    }
+    int r = 0;
+    for ( int k = 0; i + k < lim; ++k ) {
+      r |= (bytes.get((int) i + k) & 0xff) << (k << 3);
+    }
+    return r;
+  }
+
+  // n (up to 64) bits starting at i, as an unsigned long
+  public long getLong(long i, int n) {
+    if ( 0 == n || i >= length ) {
+      return 0L;
+    }
+    n = (int) Math.min(n, length - i);
+    long at = offset + i, r = 0;
+    int got = 0;
+    while ( got < n ) {
+      int s = (int) (at & 31),
+          take = Math.min(32 - s, n - got);
+      long bits = (word(at) >>> s) & ((1L << take) - 1);
+      r |= bits << got;
+      got += take;
+      at += take;
+    }
+    return r;
+  }
+
+  public Slice cut(long from, long len) {
+    if ( from >= length || len <= 0 ) {
+      return new Slice(this, offset, 0);
+    }
+    return new Slice(this, offset + from, Math.min(len, length - from));
+  }
+
+  public Slice rsh(long count) {
+    return cut(count, length - count);
+  }
+
+  public Slice end(long count) {
+    return cut(0, count);
+  }
+
+  // significant bits
+  public long met() {
+    long top = length;
+    // skip whole zero words quickly once we're word-aligned
+    while ( top > 0 ) {
+      long at = offset + top - 1;
+      if ( 31 == (at & 31) && top >= 32 && 0 == word(at) ) {
+        top -= 32;
+      }
+      else if ( bit(top - 1) ) {
+        break;
+      }
+      else {
+        --top;
+      }
+    }
+    return top;
+  }
+
+  // the value in the window, as a noun
+  public Object toAtom() {
+    long bits = met();
+    if ( bits <= 64 ) {
+      return getLong(0, (int) bits);
+    }
+    if ( bits > ((long) Integer.MAX_VALUE << 5) ) {
+      throw new Bail();
+    }
+    int[] dst = new int[(int) ((bits + 31) >>> 5)];
+    for ( int i = 0; i < dst.length; ++i ) {
+      dst[i] = (int) getLong((long) i << 5, 32);
+    }
+    return Atom.malt(dst);
+  }
+}
@@ -0,0 +1,229 @@
+package net.frodwith.jaque.data;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* The ++by (map) and ++in (set) treap arms, following hoon.hoon case for
+ * case. A tree is ~ or [n l r]; in a map n is a [key value] pair, in a set
+ * n is the key. Keys are ordered vertically by vor and horizontally by gor
+ * in ++by but by hor in ++in, which is how 151 has it. All three are total,
+ * so for a given set of keys and ordering there is exactly one treap and
+ * these produce the same nouns the hoon does. Recursion is as deep as the
+ * tree, which is logarithmic in its size. */
+public final class Treap {
+  private interface Order {
+    boolean before(Object a, Object b);
+  }
+
+  private final boolean map;
+  private final Order order;
+
+  public static final Treap BY = new Treap(true, (a, b) -> Atom.YES == Atom.gor(a, b)),
+                            IN = new Treap(false, (a, b) -> Atom.YES == Atom.hor(a, b));
+
+  private Treap(boolean map, Order order) {
+    this.map = map;
+    this.order = order;
+  }
+
+  private static final class Node {
+    final Object n, l, r;
+
+    Node(Object tree) {
+      Cell c  = Cell.orBail(tree),
+           lr = Cell.orBail(c.tail);
+      this.n = c.head;
+      this.l = lr.head;
+      this.r = lr.tail;
+    }
+  }
+
+  private static Object node(Object n, Object l, Object r) {
+    return new Cell(n, new Cell(l, r));
+  }
+
+  private static boolean isEmpty(Object tree) {
+    return !TypesGen.isCell(tree);
+  }
+
+  // does key a go left of key b?
+  private boolean before(Object a, Object b) {
+    return order.before(a, b);
+  }
+
+  private static boolean vor(Object a, Object b) {
+    return Atom.YES == Atom.vor(a, b);
+  }
+
+  private Object key(Object n) {
+    return map ? Cell.orBail(n).head : n;
+  }
+
+  // n is the node to insert: [key value] for a map, the key for a set
+  @TruffleBoundary
+  public Object put(Object a, Object n) {
+    if ( isEmpty(a) ) {
+      return node(n, 0L, 0L);
+    }
+    Node t = new Node(a);
+    Object b = key(n),
+           k = key(t.n);
+    if ( Noun.equals(b, k) ) {
+      if ( !map || Noun.equals(Cell.orBail(n).tail, Cell.orBail(t.n).tail) ) {
+        return a;
+      }
+      return node(n, t.l, t.r);
+    }
+    if ( before(b, k) ) {
+      Object e = put(t.l, n);
+      Node   d = new Node(e);
+      if ( vor(k, key(d.n)) ) {
+        return node(t.n, e, t.r);
+      }
+      return node(d.n, d.l, node(t.n, d.r, t.r));
+    }
+    else {
+      Object e = put(t.r, n);
+      Node   d = new Node(e);
+      if ( vor(k, key(d.n)) ) {
+        return node(t.n, t.l, e);
+      }
+      return node(d.n, node(t.n, t.l, d.l), d.r);
+    }
+  }
+
+  // the node with key b, or null
+  @TruffleBoundary
+  public Object find(Object a, Object b) {
+    while ( !isEmpty(a) ) {
+      Node t = new Node(a);
+      Object k = key(t.n);
+      if ( Noun.equals(b, k) ) {
+        return t.n;
+      }
+      a = before(b, k) ? t.l : t.r;
+    }
+    return null;
+  }
+
+  // (unit value), for ++get:by
+  public Object get(Object a, Object b) {
+    Object n = find(a, b);
+    return ( null == n ) ? 0L : new Cell(0L, Cell.orBail(n).tail);
+  }
+
+  public long has(Object a, Object b) {
+    return ( null == find(a, b) ) ? Atom.NO : Atom.YES;
+  }
+
+  @TruffleBoundary
+  public Object del(Object a, Object b) {
+    if ( isEmpty(a) ) {
+      return 0L;
+    }
+    Node t = new Node(a);
+    Object k = key(t.n);
+    if ( !Noun.equals(b, k) ) {
+      return before(b, k)
+        ? node(t.n, del(t.l, b), t.r)
+        : node(t.n, t.l, del(t.r, b));
+    }
+    return join(t.l, t.r);
+  }
+
+  // merge two subtrees whose keys are all ordered l before r
+  private Object join(Object l, Object r) {
+    if ( isEmpty(l) ) {
+      return r;
+    }
+    if ( isEmpty(r) ) {
+      return l;
+    }
+    Node x = new Node(l),
+         y = new Node(r);
+    if ( vor(key(x.n), key(y.n)) ) {
+      return node(x.n, x.l, join(x.r, r));
+    }
+    return node(y.n, join(l, y.l), y.r);
+  }
+
+  // everything in a or b; b's node wins on a shared key
+  @TruffleBoundary
+  public Object uni(Object a, Object b) {
+    if ( isEmpty(b) ) {
+      return a;
+    }
+    if ( isEmpty(a) ) {
+      return b;
+    }
+    Node x = new Node(a),
+         y = new Node(b);
+    Object ka = key(x.n),
+           kb = key(y.n);
+    if ( vor(ka, kb) ) {
+      if ( Noun.equals(kb, ka) ) {
+        return node(y.n, uni(x.l, y.l), uni(x.r, y.r));
+      }
+      if ( before(kb, ka) ) {
+        return uni(node(x.n, uni(x.l, node(y.n, y.l, 0L)), x.r), y.r);
+      }
+      return uni(node(x.n, x.l, uni(x.r, node(y.n, 0L, y.r))), y.l);
+    }
+    if ( Noun.equals(ka, kb) ) {
+      return node(y.n, uni(x.l, y.l), uni(x.r, y.r));
+    }
+    if ( before(ka, kb) ) {
+      return uni(x.r, node(y.n, uni(node(x.n, x.l, 0L), y.l), y.r));
+    }
+    return uni(x.l, node(y.n, y.l, uni(node(x.n, 0L, x.r), y.r)));
+  }
+
+  // keys in both a and b, with b's nodes
+  @TruffleBoundary
+  public Object int_(Object a, Object b) {
+    if ( isEmpty(b) || isEmpty(a) ) {
+      return 0L;
+    }
+    Node x = new Node(a),
+         y = new Node(b);
+    Object ka = key(x.n),
+           kb = key(y.n);
+    if ( vor(ka, kb) ) {
+      if ( Noun.equals(kb, ka) ) {
+        return node(y.n, int_(x.l, y.l), int_(x.r, y.r));
+      }
+      if ( before(kb, ka) ) {
+        return uni(int_(x.l, node(y.n, y.l, 0L)), int_(a, y.r));
+      }
+      return uni(int_(x.r, node(y.n, 0L, y.r)), int_(a, y.l));
+    }
+    if ( Noun.equals(ka, kb) ) {
+      return node(y.n, int_(x.l, y.l), int_(x.r, y.r));
+    }
+    if ( before(ka, kb) ) {
+      return uni(int_(node(x.n, x.l, 0L), y.l), int_(x.r, b));
+    }
+    return uni(int_(node(x.n, 0L, x.r), y.r), int_(x.l, b));
+  }
+
+  // put each element of the list b, in order
+  @TruffleBoundary
+  public Object gas(Object a, Object b) {
+    for ( Object i : new List(b) ) {
+      a = put(a, i);
+    }
+    return a;
+  }
+
+  // every node of a consed onto b, rightmost first (++tap takes an accumulator)
+  @TruffleBoundary
+  public Object tap(Object a, Object b) {
+    while ( !isEmpty(a) ) {
+      Node t = new Node(a);
+      b = new Cell(t.n, tap(t.l, b));
+      a = t.r;
+    }
+    return b;
+  }
+}
@@ -0,0 +1,304 @@
+package net.frodwith.jaque.ed25519;
+
+import java.math.BigInteger;
+
+/* Arithmetic mod p = 2^255 - 19, on ten signed limbs of alternately 26 and
+ * 25 bits (the ref10 representation). Every operation leaves its result
+ * carried, so limbs stay near 2^25 and a product of two elements sums to
+ * well under 2^63 before it is carried. */
+final class Field {
+  static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+
+  private static final int[] WIDTH  = { 26, 25, 26, 25, 26, 25, 26, 25, 26, 25 },
+                             OFFSET = { 0, 26, 51, 77, 102, 128, 153, 179, 204, 230 };
+
+  private Field() {
+  }
+
+  static long[] zero() {
+    return new long[10];
+  }
+
+  static long[] one() {
+    long[] h = new long[10];
+    h[0] = 1;
+    return h;
+  }
+
+  static long[] of(BigInteger v) {
+    return fromBytes(Scalar.toBytes(v.mod(P), 32), 0);
+  }
+
+  static long[] copy(long[] f) {
+    return f.clone();
+  }
+
+  // rounding carry, as in ref10: limbs end up within about half their width of zero
+  private static void carry(long[] h) {
+    long c;
+    c = (h[0] + (1L << 25)) >> 26; h[1] += c; h[0] -= c << 26;
+    c = (h[4] + (1L << 25)) >> 26; h[5] += c; h[4] -= c << 26;
+    c = (h[1] + (1L << 24)) >> 25; h[2] += c; h[1] -= c << 25;
+    c = (h[5] + (1L << 24)) >> 25; h[6] += c; h[5] -= c << 25;
+    c = (h[2] + (1L << 25)) >> 26; h[3] += c; h[2] -= c << 26;
+    c = (h[6] + (1L << 25)) >> 26; h[7] += c; h[6] -= c << 26;
+    c = (h[3] + (1L << 24)) >> 25; h[4] += c; h[3] -= c << 25;
+    c = (h[7] + (1L << 24)) >> 25; h[8] += c; h[7] -= c << 25;
+    c = (h[4] + (1L << 25)) >> 26; h[5] += c; h[4] -= c << 26;
+    c = (h[8] + (1L << 25)) >> 26; h[9] += c; h[8] -= c << 26;
+    c = (h[9] + (1L << 24)) >> 25; h[0] += c * 19; h[9] -= c << 25;
+    c = (h[0] + (1L << 25)) >> 26; h[1] += c; h[0] -= c << 26;
+  }
+
+  static long[] add(long[] f, long[] g) {
+    long[] h = new long[10];
+    for ( int i = 0; i < 10; ++i ) {
+      h[i] = f[i] + g[i];
+    }
+    carry(h);
+    return h;
+  }
+
+  static long[] sub(long[] f, long[] g) {
+    long[] h = new long[10];
+    for ( int i = 0; i < 10; ++i ) {
+      h[i] = f[i] - g[i];
+    }
+    carry(h);
+    return h;
+  }
+
+  static long[] neg(long[] f) {
+    long[] h = new long[10];
+    for ( int i = 0; i < 10; ++i ) {
+      h[i] = -f[i];
+    }
+    return h;
+  }
+
+  /* Limb i sits at bit OFFSET[i], so f[i]g[j] lands on limb i+j, doubled
+   * when both are odd (their offsets round up twice), and anything past
+   * limb 9 wraps around times 19, since 2^255 = 19. Written out, since this
+   * is where all the time goes. */
+  static long[] mul(long[] f, long[] g) {
+    long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4],
+         f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9],
+         g0 = g[0], g1 = g[1], g2 = g[2], g3 = g[3], g4 = g[4],
+         g5 = g[5], g6 = g[6], g7 = g[7], g8 = g[8], g9 = g[9],
+         g1_19 = 19 * g1, g2_19 = 19 * g2, g3_19 = 19 * g3, g4_19 = 19 * g4,
+         g5_19 = 19 * g5, g6_19 = 19 * g6, g7_19 = 19 * g7, g8_19 = 19 * g8,
+         g9_19 = 19 * g9,
+         f1_2 = 2 * f1, f3_2 = 2 * f3, f5_2 = 2 * f5, f7_2 = 2 * f7, f9_2 = 2 * f9;
+
+    long[] h = new long[10];
+    h[0] = f0 * g0 + f1_2 * g9_19 + f2 * g8_19 + f3_2 * g7_19 + f4 * g6_19
+         + f5_2 * g5_19 + f6 * g4_19 + f7_2 * g3_19 + f8 * g2_19 + f9_2 * g1_19;
+    h[1] = f0 * g1 + f1 * g0 + f2 * g9_19 + f3 * g8_19 + f4 * g7_19
+         + f5 * g6_19 + f6 * g5_19 + f7 * g4_19 + f8 * g3_19 + f9 * g2_19;
+    h[2] = f0 * g2 + f1_2 * g1 + f2 * g0 + f3_2 * g9_19 + f4 * g8_19
+         + f5_2 * g7_19 + f6 * g6_19 + f7_2 * g5_19 + f8 * g4_19 + f9_2 * g3_19;
+    h[3] = f0 * g3 + f1 * g2 + f2 * g1 + f3 * g0 + f4 * g9_19
+         + f5 * g8_19 + f6 * g7_19 + f7 * g6_19 + f8 * g5_19 + f9 * g4_19;
+    h[4] = f0 * g4 + f1_2 * g3 + f2 * g2 + f3_2 * g1 + f4 * g0
+         + f5_2 * g9_19 + f6 * g8_19 + f7_2 * g7_19 + f8 * g6_19 + f9_2 * g5_19;
+    h[5] = f0 * g5 + f1 * g4 + f2 * g3 + f3 * g2 + f4 * g1
+         + f5 * g0 + f6 * g9_19 + f7 * g8_19 + f8 * g7_19 + f9 * g6_19;
+    h[6] = f0 * g6 + f1_2 * g5 + f2 * g4 + f3_2 * g3 + f4 * g2
+         + f5_2 * g1 + f6 * g0 + f7_2 * g9_19 + f8 * g8_19 + f9_2 * g7_19;
+    h[7] = f0 * g7 + f1 * g6 + f2 * g5 + f3 * g4 + f4 * g3
+         + f5 * g2 + f6 * g1 + f7 * g0 + f8 * g9_19 + f9 * g8_19;
+    h[8] = f0 * g8 + f1_2 * g7 + f2 * g6 + f3_2 * g5 + f4 * g4
+         + f5_2 * g3 + f6 * g2 + f7_2 * g1 + f8 * g0 + f9_2 * g9_19;
+    h[9] = f0 * g9 + f1 * g8 + f2 * g7 + f3 * g6 + f4 * g5
+         + f5 * g4 + f6 * g3 + f7 * g2 + f8 * g1 + f9 * g0;
+    carry(h);
+    return h;
+  }
+
+  // mul(f, f), sharing the symmetric terms
+  static long[] sq(long[] f) {
+    long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4],
+         f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9],
+         f0_2 = 2 * f0, f1_2 = 2 * f1, f2_2 = 2 * f2, f3_2 = 2 * f3,
+         f4_2 = 2 * f4, f5_2 = 2 * f5, f6_2 = 2 * f6, f7_2 = 2 * f7,
+         f5_38 = 38 * f5, f6_19 = 19 * f6, f7_38 = 38 * f7,
+         f8_19 = 19 * f8, f9_38 = 38 * f9;
+
+    long[] h = new long[10];
+    h[0] = f0 * f0 + f1_2 * f9_38 + f2_2 * f8_19 + f3_2 * f7_38 + f4_2 * f6_19 + f5 * f5_38;
+    h[1] = f0_2 * f1 + f2 * f9_38 + f3_2 * f8_19 + f4 * f7_38 + f5_2 * f6_19;
+    h[2] = f0_2 * f2 + f1_2 * f1 + f3_2 * f9_38 + f4_2 * f8_19 + f5_2 * f7_38 + f6 * f6_19;
+    h[3] = f0_2 * f3 + f1_2 * f2 + f4 * f9_38 + f5_2 * f8_19 + f6 * f7_38;
+    h[4] = f0_2 * f4 + f1_2 * f3_2 + f2 * f2 + f5_2 * f9_38 + f6_2 * f8_19 + f7 * f7_38;
+    h[5] = f0_2 * f5 + f1_2 * f4 + f2_2 * f3 + f6 * f9_38 + f7_2 * f8_19;
+    h[6] = f0_2 * f6 + f1_2 * f5_2 + f2_2 * f4 + f3_2 * f3 + f7_2 * f9_38 + f8 * f8_19;
+    h[7] = f0_2 * f7 + f1_2 * f6 + f2_2 * f5 + f3_2 * f4 + f8 * f9_38;
+    h[8] = f0_2 * f8 + f1_2 * f7_2 + f2_2 * f6 + f3_2 * f5_2 + f4 * f4 + f9 * f9_38;
+    h[9] = f0_2 * f9 + f1_2 * f8 + f2_2 * f7 + f3_2 * f6 + f4_2 * f5;
+    carry(h);
+    return h;
+  }
+
+  // f^(2^n)
+  private static long[] sqn(long[] f, int n) {
+    for ( int i = 0; i < n; ++i ) {
+      f = sq(f);
+    }
+    return f;
+  }
+
+  // z^(p-2), with the addition chain from ref10
+  static long[] invert(long[] z) {
+    long[] t0 = sq(z),
+           t1 = sqn(t0, 2);
+    t1 = mul(z, t1);
+    t0 = mul(t0, t1);
+    long[] t2 = sq(t0);
+    t1 = mul(t1, t2);
+    t2 = sqn(t1, 5);
+    t1 = mul(t2, t1);
+    t2 = sqn(t1, 10);
+    t2 = mul(t2, t1);
+    long[] t3 = sqn(t2, 20);
+    t2 = mul(t3, t2);
+    t2 = sqn(t2, 10);
+    t1 = mul(t2, t1);
+    t2 = sqn(t1, 50);
+    t2 = mul(t2, t1);
+    t3 = sqn(t2, 100);
+    t2 = mul(t3, t2);
+    t2 = sqn(t2, 50);
+    t1 = mul(t2, t1);
+    t1 = sqn(t1, 5);
+    return mul(t1, t0);
+  }
+
+  // z^((p-5)/8), for square roots
+  static long[] pow22523(long[] z) {
+    long[] t0 = sq(z),
+           t1 = sqn(t0, 2);
+    t1 = mul(z, t1);
+    t0 = mul(t0, t1);
+    t0 = sq(t0);
+    t0 = mul(t1, t0);
+    t1 = sqn(t0, 5);
+    t0 = mul(t1, t0);
+    t1 = sqn(t0, 10);
+    t1 = mul(t1, t0);
+    long[] t2 = sqn(t1, 20);
+    t1 = mul(t2, t1);
+    t1 = sqn(t1, 10);
+    t0 = mul(t1, t0);
+    t1 = sqn(t0, 50);
+    t1 = mul(t1, t0);
+    t2 = sqn(t1, 100);
+    t1 = mul(t2, t1);
+    t1 = sqn(t1, 50);
+    t0 = mul(t1, t0);
+    t0 = sqn(t0, 2);
+    return mul(t0, z);
+  }
+
+  // the low 255 bits of s[off..off+32], little-endian; the top bit is ignored
+  static long[] fromBytes(byte[] s, int off) {
+    long[] h = new long[10];
+    for ( int i = 0; i < 10; ++i ) {
+      h[i] = bits(s, off, OFFSET[i], WIDTH[i]);
+    }
+    carry(h);
+    return h;
+  }
+
+  private static long bits(byte[] s, int off, int at, int n) {
+    long r = 0;
+    int  first = at >>> 3;
+    for ( int b = Math.min(first + 4, 31); b >= first; --b ) {
+      r = (r << 8) | (s[off + b] & 0xff);
+    }
+    return (r >>> (at & 7)) & ((1L << n) - 1);
+  }
+
+  // the canonical (fully reduced) little-endian encoding of f
+  static byte[] toBytes(long[] f) {
+    long[] h = f.clone();
+    long   c9;
+
+    // floor carries until every limb is in [0, 2^w) and nothing wraps
+    do {
+      c9 = 0;
+      for ( int i = 0; i < 10; ++i ) {
+        long c = h[i] >> WIDTH[i];
+        h[i] -= c << WIDTH[i];
+        if ( i < 9 ) {
+          h[i + 1] += c;
+        }
+        else {
+          c9 = c;
+        }
+      }
+      h[0] += 19 * c9;
+    } while ( 0 != c9 );
+
+    // now 0 <= h < 2^255; subtract p if h + 19 carries out of bit 255
+    long q = 19;
+    for ( int i = 0; i < 10; ++i ) {
+      q = (h[i] + q) >> WIDTH[i];
+    }
+    h[0] += 19 * q;
+    for ( int i = 0; i < 10; ++i ) {
+      long c = h[i] >> WIDTH[i];
+      h[i] -= c << WIDTH[i];
+      if ( i < 9 ) {
+        h[i + 1] += c;
+      }
+    }
+
+    byte[] s = new byte[32];
+    for ( int i = 0; i < 10; ++i ) {
+      long v = h[i];
+      for ( int at = OFFSET[i], n = WIDTH[i]; n > 0; ) {
+        int  k    = at & 7,
+             take = Math.min(8 - k, n);
+        s[at >>> 3] |= (byte) ((v & ((1 << take) - 1)) << k);
+        v >>>= take;
+        at += take;
+        n -= take;
+      }
+    }
+    return s;
+  }
+
+  static boolean isZero(long[] f) {
+    byte r = 0;
+    for ( byte b : toBytes(f) ) {
+      r |= b;
+    }
+    return 0 == r;
+  }
+
+  static int isNegative(long[] f) {
+    return toBytes(f)[0] & 1;
+  }
+
+  static boolean equals(long[] f, long[] g) {
+    return isZero(sub(f, g));
+  }
+
+  // swap f and g in place when b is 1, without branching on b
+  static void cswap(long[] f, long[] g, int b) {
+    long mask = -b;
+    for ( int i = 0; i < 10; ++i ) {
+      long x = mask & (f[i] ^ g[i]);
+      f[i] ^= x;
+      g[i] ^= x;
+    }
+  }
+
+  // f = g when b is 1, without branching on b
+  static void cmov(long[] f, long[] g, int b) {
+    long mask = -b;
+    for ( int i = 0; i < 10; ++i ) {
+      f[i] ^= mask & (f[i] ^ g[i]);
+    }
+  }
+}
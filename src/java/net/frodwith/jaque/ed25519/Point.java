@@ -0,0 +1,288 @@
+package net.frodwith.jaque.ed25519;
+
+import java.math.BigInteger;
+
+/* Points on the twisted Edwards curve -x^2 + y^2 = 1 + dx^2y^2, in extended
+ * coordinates (X:Y:Z:T) with x = X/Z, y = Y/Z and xy = T/Z. The addition
+ * and doubling formulas (Hisil, Wong, Carter and Dawson, 2008) are complete
+ * on this curve, so nothing special happens at the identity. */
+final class Point {
+  static final long[] D, D2, SQRTM1;
+  static final Point BASE;
+
+  static {
+    BigInteger p = Field.P,
+               d = BigInteger.valueOf(-121665)
+                   .multiply(BigInteger.valueOf(121666).modInverse(p)).mod(p);
+    D      = Field.of(d);
+    D2     = Field.of(d.shiftLeft(1));
+    SQRTM1 = Field.of(BigInteger.valueOf(2).modPow(p.subtract(BigInteger.ONE).shiftRight(2), p));
+    // y = 4/5, with x even
+    BigInteger y = BigInteger.valueOf(4).multiply(BigInteger.valueOf(5).modInverse(p)).mod(p);
+    BASE = decode(Scalar.toBytes(y, 32), 0);
+  }
+
+  final long[] x, y, z, t;
+
+  Point(long[] x, long[] y, long[] z, long[] t) {
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.t = t;
+  }
+
+  static Point identity() {
+    return new Point(Field.zero(), Field.one(), Field.one(), Field.zero());
+  }
+
+  /* A point prepared for adding: (Y+X, Y-X, 2Z, 2dT). Subtracting it just
+   * swaps the first two and negates the last. */
+  static final class Cached {
+    final long[] ypx, ymx, z2, t2d;
+
+    Cached(long[] ypx, long[] ymx, long[] z2, long[] t2d) {
+      this.ypx = ypx;
+      this.ymx = ymx;
+      this.z2  = z2;
+      this.t2d = t2d;
+    }
+
+    Cached(Point p) {
+      this(Field.add(p.y, p.x), Field.sub(p.y, p.x), Field.add(p.z, p.z), Field.mul(p.t, D2));
+    }
+
+    Cached negate() {
+      return new Cached(ymx, ypx, z2, Field.neg(t2d));
+    }
+
+    static Cached identity() {
+      long[] two = Field.one();
+      two[0] = 2;
+      return new Cached(Field.one(), Field.one(), two, Field.zero());
+    }
+
+    // this = c when b is 1, in constant time
+    void cmov(Cached c, int b) {
+      Field.cmov(ypx, c.ypx, b);
+      Field.cmov(ymx, c.ymx, b);
+      Field.cmov(z2, c.z2, b);
+      Field.cmov(t2d, c.t2d, b);
+    }
+
+    Cached copy() {
+      return new Cached(ypx.clone(), ymx.clone(), z2.clone(), t2d.clone());
+    }
+  }
+
+  Point add(Cached q) {
+    long[] a = Field.mul(Field.sub(y, x), q.ymx),
+           b = Field.mul(Field.add(y, x), q.ypx),
+           c = Field.mul(t, q.t2d),
+           d = Field.mul(z, q.z2),
+           e = Field.sub(b, a),
+           f = Field.sub(d, c),
+           g = Field.add(d, c),
+           h = Field.add(b, a);
+    return new Point(Field.mul(e, f), Field.mul(g, h), Field.mul(f, g), Field.mul(e, h));
+  }
+
+  Point dbl() {
+    long[] a  = Field.sq(x),
+           b  = Field.sq(y),
+           zz = Field.sq(z),
+           c  = Field.add(zz, zz),
+           e  = Field.sub(Field.sub(Field.sq(Field.add(x, y)), a), b),
+           g  = Field.sub(b, a),
+           f  = Field.sub(g, c),
+           h  = Field.neg(Field.add(a, b));
+    return new Point(Field.mul(e, f), Field.mul(g, h), Field.mul(f, g), Field.mul(e, h));
+  }
+
+  Point negate() {
+    return new Point(Field.neg(x), y, z, Field.neg(t));
+  }
+
+  byte[] encode() {
+    long[] zi = Field.invert(z);
+    byte[] s  = Field.toBytes(Field.mul(y, zi));
+    s[31] ^= Field.isNegative(Field.mul(x, zi)) << 7;
+    return s;
+  }
+
+  /* The point encoded at s[off..off+32], or null if there isn't one. Like
+   * ref10, this accepts y >= p, and x = 0 with the sign bit set. */
+  static Point decode(byte[] s, int off) {
+    long[] y  = Field.fromBytes(s, off),
+           yy = Field.sq(y),
+           u  = Field.sub(yy, Field.one()),               // y^2 - 1
+           v  = Field.add(Field.mul(yy, D), Field.one()), // dy^2 + 1
+           v3 = Field.mul(Field.sq(v), v),
+           x  = Field.mul(Field.mul(Field.sq(v3), v), u); // uv^7
+
+    x = Field.mul(Field.mul(Field.pow22523(x), v3), u);   // uv^3(uv^7)^((p-5)/8)
+    long[] vxx = Field.mul(Field.sq(x), v);
+    if ( !Field.equals(vxx, u) ) {
+      if ( !Field.isZero(Field.add(vxx, u)) ) {
+        return null;
+      }
+      x = Field.mul(x, SQRTM1);
+    }
+    if ( Field.isNegative(x) != ((s[off + 31] >>> 7) & 1) ) {
+      x = Field.neg(x);
+    }
+    return new Point(x, y, Field.one(), Field.mul(x, y));
+  }
+
+  // (j+1) * 16^i * B, for the constant-time fixed-base multiply
+  private static final class BaseTable {
+    static final Cached[][] ROWS = new Cached[64][8];
+
+    static {
+      Point row = BASE;
+      for ( int i = 0; i < 64; ++i ) {
+        Cached c = new Cached(row);
+        Point  m = row;
+        ROWS[i][0] = c;
+        for ( int j = 1; j < 8; ++j ) {
+          m = m.add(c);
+          ROWS[i][j] = new Cached(m);
+        }
+        row = row.dbl().dbl().dbl().dbl();
+      }
+    }
+  }
+
+  // B, 3B, 5B, ... 15B, for the variable-time multiplies
+  private static final class BaseOdd {
+    static final Cached[] TABLE = odd(BASE);
+  }
+
+  /* a*B for a 32-byte scalar with a[31] <= 127, in time independent of a.
+   * a is recoded into 64 signed digits in [-8, 8], one per 4 bits, and
+   * each digit picks its multiple out of a row of the table. */
+  static Point baseMul(byte[] a) {
+    byte[] e = new byte[64];
+    for ( int i = 0; i < 32; ++i ) {
+      e[2 * i]     = (byte) (a[i] & 15);
+      e[2 * i + 1] = (byte) ((a[i] >>> 4) & 15);
+    }
+    int carry = 0;
+    for ( int i = 0; i < 63; ++i ) {
+      e[i] += carry;
+      carry = (e[i] + 8) >> 4;
+      e[i] -= carry << 4;
+    }
+    e[63] += carry;
+
+    Point r = identity();
+    for ( int i = 0; i < 64; ++i ) {
+      r = r.add(select(BaseTable.ROWS[i], e[i]));
+    }
+    return r;
+  }
+
+  private static Cached select(Cached[] row, byte digit) {
+    int neg = (digit >>> 7) & 1,
+        abs = digit - ((-neg & digit) << 1);
+    Cached c = Cached.identity();
+    for ( int j = 0; j < 8; ++j ) {
+      c.cmov(row[j], eq(abs, j + 1));
+    }
+    c.cmov(c.copy().negate(), neg);
+    return c;
+  }
+
+  private static int eq(int a, int b) {
+    return ((a ^ b) - 1) >>> 31;
+  }
+
+  private static Cached[] odd(Point p) {
+    Cached[] t = new Cached[8];
+    Cached two = new Cached(p.dbl());
+    Point  m   = p;
+    t[0] = new Cached(p);
+    for ( int i = 1; i < 8; ++i ) {
+      m = m.add(two);
+      t[i] = new Cached(m);
+    }
+    return t;
+  }
+
+  /* Signed odd digits in [-15, 15] with at least a few zeros between them
+   * (ref10's slide), reading s as a little-endian integer. */
+  private static byte[] slide(byte[] s) {
+    int    n = s.length * 8;
+    byte[] r = new byte[n + 1];
+    for ( int i = 0; i < n; ++i ) {
+      r[i] = (byte) (1 & (s[i >>> 3] >>> (i & 7)));
+    }
+    for ( int i = 0; i < n; ++i ) {
+      if ( 0 == r[i] ) {
+        continue;
+      }
+      for ( int b = 1; b <= 6 && i + b <= n; ++b ) {
+        if ( 0 == r[i + b] ) {
+          continue;
+        }
+        if ( r[i] + (r[i + b] << b) <= 15 ) {
+          r[i] += r[i + b] << b;
+          r[i + b] = 0;
+        }
+        else if ( r[i] - (r[i + b] << b) >= -15 ) {
+          r[i] -= r[i + b] << b;
+          for ( int k = i + b; k <= n; ++k ) {
+            if ( 0 == r[k] ) {
+              r[k] = 1;
+              break;
+            }
+            r[k] = 0;
+          }
+        }
+        else {
+          break;
+        }
+      }
+    }
+    return r;
+  }
+
+  /* b*B + the sum of scalars[i]*points[i], in variable time: the public
+   * half of verification. All the slides share one run of doublings. */
+  static Point multiMul(byte[] b, byte[][] scalars, Point[] points) {
+    int n = points.length;
+    byte[][]   digits = new byte[n][];
+    Cached[][] tables = new Cached[n][];
+    byte[]     bd     = slide(b);
+    int        top    = bd.length - 1;
+
+    for ( int i = 0; i < n; ++i ) {
+      digits[i] = slide(scalars[i]);
+      tables[i] = odd(points[i]);
+      top = Math.max(top, digits[i].length - 1);
+    }
+
+    Point r = identity();
+    boolean started = false;
+    for ( int k = top; k >= 0; --k ) {
+      if ( started ) {
+        r = r.dbl();
+      }
+      if ( k < bd.length && 0 != bd[k] ) {
+        r = r.add(pick(BaseOdd.TABLE, bd[k]));
+        started = true;
+      }
+      for ( int i = 0; i < n; ++i ) {
+        byte[] d = digits[i];
+        if ( k < d.length && 0 != d[k] ) {
+          r = r.add(pick(tables[i], d[k]));
+          started = true;
+        }
+      }
+    }
+    return r;
+  }
+
+  private static Cached pick(Cached[] table, byte digit) {
+    return ( digit > 0 ) ? table[digit >> 1] : table[(-digit) >> 1].negate();
+  }
+}
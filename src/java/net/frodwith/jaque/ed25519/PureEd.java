@@ -0,0 +1,133 @@
+package net.frodwith.jaque.ed25519;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import net.frodwith.jaque.Ed25519;
+
+/* Ed25519 in plain java, producing the same bytes as the ref10-based
+ * libed25519 we used to bind natively: the same key expansion, the same
+ * lenient public key decoding, and the same montgomery key exchange. */
+public final class PureEd implements Ed25519.Ed {
+  private static final ThreadLocal<MessageDigest> SHA512 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-512");
+    }
+    catch ( NoSuchAlgorithmException e ) {
+      throw new IllegalStateException(e);
+    }
+  });
+
+  private static byte[] sha512(byte[]... parts) {
+    MessageDigest d = SHA512.get();
+    for ( byte[] p : parts ) {
+      d.update(p);
+    }
+    return d.digest();
+  }
+
+  private static byte[] slice(byte[] a, int from, int len) {
+    byte[] r = new byte[len];
+    System.arraycopy(a, from, r, 0, len);
+    return r;
+  }
+
+  private static byte[] message(byte[] m, int len) {
+    return ( len == m.length ) ? m : slice(m, 0, len);
+  }
+
+  @Override
+  public void ed25519_create_keypair(byte[] publicKey, byte[] privateKey, byte[] seed) {
+    byte[] h = sha512(slice(seed, 0, 32));
+    h[0]  &= (byte) 248;
+    h[31] &= 63;
+    h[31] |= 64;
+    System.arraycopy(h, 0, privateKey, 0, 64);
+    System.arraycopy(Point.baseMul(h).encode(), 0, publicKey, 0, 32);
+  }
+
+  @Override
+  public void ed25519_sign(byte[] signature, byte[] message, int len, byte[] publicKey, byte[] privateKey) {
+    byte[] m   = message(message, len),
+           pub = slice(publicKey, 0, 32),
+           a   = slice(privateKey, 0, 32);
+
+    // r and a are secret: no BigInteger here
+    byte[] r  = Scalar.reduce64(sha512(slice(privateKey, 32, 32), m)),
+           rb = Point.baseMul(r).encode(),
+           h  = Scalar.reduce64(sha512(rb, pub, m));
+
+    System.arraycopy(rb, 0, signature, 0, 32);
+    System.arraycopy(Scalar.mulAdd(h, a, r), 0, signature, 32, 32);
+  }
+
+  @Override
+  public int ed25519_verify(byte[] signature, byte[] message, int len, byte[] publicKey) {
+    if ( 0 != (signature[63] & 224) ) {
+      return 0;
+    }
+    Point a = Point.decode(publicKey, 0);
+    if ( null == a ) {
+      return 0;
+    }
+    byte[] rb = slice(signature, 0, 32),
+           h  = Scalar.toBytes(Scalar.reduce(
+                  sha512(rb, slice(publicKey, 0, 32), message(message, len))), 32);
+
+    // s*B - h*A should come out to R, byte for byte
+    Point check = Point.multiMul(slice(signature, 32, 32),
+                                 new byte[][] { h },
+                                 new Point[] { a.negate() });
+    return Arrays.equals(check.encode(), rb) ? 1 : 0;
+  }
+
+  @Override
+  public void ed25519_key_exchange(byte[] sharedSecret, byte[] publicKey, byte[] privateKey) {
+    byte[] e = slice(privateKey, 0, 32);
+    e[0]  &= (byte) 248;
+    e[31] &= 63;
+    e[31] |= 64;
+
+    // montgomery u = (1 + y) / (1 - y)
+    long[] y  = Field.fromBytes(publicKey, 0),
+           x1 = Field.mul(Field.add(Field.one(), y), Field.invert(Field.sub(Field.one(), y))),
+           x2 = Field.one(),
+           z2 = Field.zero(),
+           x3 = Field.copy(x1),
+           z3 = Field.one(),
+           a24 = Field.of(BigInteger.valueOf(121666));
+    int swap = 0;
+
+    for ( int pos = 254; pos >= 0; --pos ) {
+      int b = (e[pos >>> 3] >>> (pos & 7)) & 1;
+      swap ^= b;
+      Field.cswap(x2, x3, swap);
+      Field.cswap(z2, z3, swap);
+      swap = b;
+
+      long[] t0 = Field.sub(x3, z3),
+             t1 = Field.sub(x2, z2);
+      x2 = Field.add(x2, z2);
+      z2 = Field.add(x3, z3);
+      z3 = Field.mul(t0, x2);
+      z2 = Field.mul(z2, t1);
+      t0 = Field.sq(t1);
+      t1 = Field.sq(x2);
+      x3 = Field.add(z3, z2);
+      z2 = Field.sub(z3, z2);
+      x2 = Field.mul(t1, t0);
+      t1 = Field.sub(t1, t0);
+      z2 = Field.sq(z2);
+      z3 = Field.mul(a24, t1);
+      x3 = Field.sq(x3);
+      t0 = Field.add(t0, z3);
+      z3 = Field.mul(x1, z2);
+      z2 = Field.mul(t1, t0);
+    }
+    Field.cswap(x2, x3, swap);
+    Field.cswap(z2, z3, swap);
+    System.arraycopy(Field.toBytes(Field.mul(x2, Field.invert(z2))), 0, sharedSecret, 0, 32);
+  }
+}
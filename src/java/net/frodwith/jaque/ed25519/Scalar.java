@@ -0,0 +1,152 @@
+package net.frodwith.jaque.ed25519;
+
+import java.math.BigInteger;
+
+/* Scalars mod the group order L, as little-endian byte strings. There are
+ * only a handful of these per signature, next to thousands of field
+ * multiplications, so BigInteger is plenty fast where the scalars are
+ * public (verification). Signing works on the secret scalar and nonce, so
+ * it uses reduce64 and mulAdd instead: ref10's sc_reduce and sc_muladd, on
+ * 21-bit signed limbs, which run the same steps whatever the values. */
+final class Scalar {
+  static final BigInteger L = BigInteger.ONE.shiftLeft(252)
+    .add(new BigInteger("27742317777372353535851937790883648493"));
+
+  private Scalar() {
+  }
+
+  static BigInteger fromBytes(byte[] s, int off, int len) {
+    byte[] be = new byte[len + 1];
+    for ( int i = 0; i < len; ++i ) {
+      be[len - i] = s[off + i];
+    }
+    return new BigInteger(be);
+  }
+
+  // the low len bytes of v (which must be nonnegative)
+  static byte[] toBytes(BigInteger v, int len) {
+    byte[] be = v.toByteArray(),
+           le = new byte[len];
+    for ( int i = 0; i < len && i < be.length; ++i ) {
+      le[i] = be[be.length - 1 - i];
+    }
+    return le;
+  }
+
+  static BigInteger reduce(byte[] s) {
+    return fromBytes(s, 0, s.length).mod(L);
+  }
+
+  // 2^252 = -(L - 2^252) mod L, in 21-bit limbs
+  private static final long[] FOLD = { 666643, 470296, 654183, -997805, 136657, -683901 };
+
+  // the 21 bits of s at bit pos, or all the bits left from there for the top limb
+  private static long limb(byte[] s, int pos, boolean top) {
+    int i = pos >>> 3;
+    long w = 0;
+    for ( int k = 0; k < 4 && i + k < s.length; ++k ) {
+      w |= (long) (s[i + k] & 0xff) << (k << 3);
+    }
+    w >>>= pos & 7;
+    return top ? w : w & 2097151;
+  }
+
+  private static long[] limbs(byte[] s, int n) {
+    long[] l = new long[n];
+    for ( int i = 0; i < n; ++i ) {
+      l[i] = limb(s, 21 * i, i == n - 1);
+    }
+    return l;
+  }
+
+  // s[i] * 2^(21i) moved down into the six limbs from i - 12
+  private static void fold(long[] s, int i) {
+    for ( int k = 0; k < 6; ++k ) {
+      s[i - 12 + k] += s[i] * FOLD[k];
+    }
+    s[i] = 0;
+  }
+
+  // rounding carry out of limb i: leaves it within 2^20 of zero
+  private static void round(long[] s, int i) {
+    long c = (s[i] + (1L << 20)) >> 21;
+    s[i + 1] += c;
+    s[i] -= c << 21;
+  }
+
+  private static void floor(long[] s, int i) {
+    long c = s[i] >> 21;
+    s[i + 1] += c;
+    s[i] -= c << 21;
+  }
+
+  // the tail of sc_reduce: 24 carried limbs down to 32 bytes mod L
+  private static byte[] finish(long[] s) {
+    for ( int i = 23; i >= 18; --i ) {
+      fold(s, i);
+    }
+    for ( int i = 6; i <= 16; i += 2 ) {
+      round(s, i);
+    }
+    for ( int i = 7; i <= 15; i += 2 ) {
+      round(s, i);
+    }
+    for ( int i = 17; i >= 12; --i ) {
+      fold(s, i);
+    }
+    for ( int i = 0; i <= 10; i += 2 ) {
+      round(s, i);
+    }
+    for ( int i = 1; i <= 11; i += 2 ) {
+      round(s, i);
+    }
+    fold(s, 12);
+    for ( int i = 0; i <= 11; ++i ) {
+      floor(s, i);
+    }
+    fold(s, 12);
+    for ( int i = 0; i <= 10; ++i ) {
+      floor(s, i);
+    }
+
+    byte[] out = new byte[32];
+    long acc = 0;
+    int bits = 0, o = 0;
+    for ( int i = 0; i < 12; ++i ) {
+      acc |= s[i] << bits;
+      bits += 21;
+      while ( bits >= 8 && o < 32 ) {
+        out[o++] = (byte) acc;
+        acc >>>= 8;
+        bits -= 8;
+      }
+    }
+    out[31] = (byte) acc;
+    return out;
+  }
+
+  // 64 little-endian bytes (a sha512) mod L
+  static byte[] reduce64(byte[] s) {
+    return finish(limbs(s, 24));
+  }
+
+  // (a*b + c) mod L, each a 32-byte scalar
+  static byte[] mulAdd(byte[] a, byte[] b, byte[] c) {
+    long[] x = limbs(a, 12),
+           y = limbs(b, 12),
+           s = new long[24];
+    System.arraycopy(limbs(c, 12), 0, s, 0, 12);
+    for ( int i = 0; i < 12; ++i ) {
+      for ( int j = 0; j < 12; ++j ) {
+        s[i + j] += x[i] * y[j];
+      }
+    }
+    for ( int i = 0; i <= 22; i += 2 ) {
+      round(s, i);
+    }
+    for ( int i = 1; i <= 21; i += 2 ) {
+      round(s, i);
+    }
+    return finish(s);
+  }
+}
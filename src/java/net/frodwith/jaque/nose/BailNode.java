@@ -0,0 +1,14 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.Bail;
+
+public final class BailNode extends NoseNode {
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    throw new Bail();
+  }
+
+}
@@ -0,0 +1,72 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotKind;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* a new subject (nock 7 and 8). The slot's kind starts out Illegal and
+ * settles on Long if only direct atoms are ever bound to it. */
+public final class BindNode extends NoseNode {
+  private final FrameSlot slot;
+  @Child private NoseNode value;
+  @Child private NoseNode body;
+
+  public BindNode(FrameSlot slot, NoseNode value, NoseNode body) {
+    this.slot = slot;
+    this.value = value;
+    this.body = body;
+  }
+
+  private void bind(VirtualFrame frame) {
+    switch ( slot.getKind() ) {
+      case Long:
+        try {
+          frame.setLong(slot, value.executeLong(frame));
+        }
+        catch ( UnexpectedResultException e ) {
+          CompilerDirectives.transferToInterpreterAndInvalidate();
+          slot.setKind(FrameSlotKind.Object);
+          frame.setObject(slot, e.getResult());
+        }
+        break;
+      case Object:
+        frame.setObject(slot, value.executeNoun(frame));
+        break;
+      default: {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        Object v = value.executeNoun(frame);
+        if ( TypesGen.isLong(v) ) {
+          slot.setKind(FrameSlotKind.Long);
+          frame.setLong(slot, TypesGen.asLong(v));
+        }
+        else {
+          slot.setKind(FrameSlotKind.Object);
+          frame.setObject(slot, v);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    bind(frame);
+    return body.executeNoun(frame);
+  }
+
+  @Override
+  public long executeLong(VirtualFrame frame) throws UnexpectedResultException {
+    bind(frame);
+    return body.executeLong(frame);
+  }
+
+  @Override
+  public Cell executeCell(VirtualFrame frame) throws UnexpectedResultException {
+    bind(frame);
+    return body.executeCell(frame);
+  }
+}
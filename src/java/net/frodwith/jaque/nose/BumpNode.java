@@ -0,0 +1,20 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.truffle.bloc.BumpOpNode;
+import net.frodwith.jaque.truffle.bloc.BumpOpNodeGen;
+
+public final class BumpNode extends NoseNode {
+  @Child private NoseNode arg;
+  @Child private BumpOpNode bump = BumpOpNodeGen.create();
+
+  public BumpNode(NoseNode arg) {
+    this.arg = arg;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    return bump.executeBump(frame, arg.executeNoun(frame));
+  }
+}
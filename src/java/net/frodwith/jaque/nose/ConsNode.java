@@ -0,0 +1,26 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.data.Cell;
+
+public final class ConsNode extends NoseNode {
+  @Child private NoseNode head;
+  @Child private NoseNode tail;
+
+  public ConsNode(NoseNode head, NoseNode tail) {
+    this.head = head;
+    this.tail = tail;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    return executeCell(frame);
+  }
+
+  @Override
+  public Cell executeCell(VirtualFrame frame) {
+    Object h = head.executeNoun(frame);
+    return new Cell(h, tail.executeNoun(frame));
+  }
+}
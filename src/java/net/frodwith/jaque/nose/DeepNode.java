@@ -0,0 +1,25 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.truffle.bloc.DeepOpNode;
+import net.frodwith.jaque.truffle.bloc.DeepOpNodeGen;
+
+public final class DeepNode extends NoseNode {
+  @Child private NoseNode arg;
+  @Child private DeepOpNode deep = DeepOpNodeGen.create();
+
+  public DeepNode(NoseNode arg) {
+    this.arg = arg;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    return executeLong(frame);
+  }
+
+  @Override
+  public long executeLong(VirtualFrame frame) {
+    return deep.executeDeep(frame, arg.executeNoun(frame));
+  }
+}
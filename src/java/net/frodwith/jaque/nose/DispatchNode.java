@@ -0,0 +1,48 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+
+public final class DispatchNode extends Node {
+  @CompilationFinal private CallTarget cachedTarget = null;
+  @CompilationFinal private boolean megamorphic = false;
+  @Child private DirectCallNode direct = null;
+  @Child private IndirectCallNode indirect = IndirectCallNode.create();
+
+  public Object executeDispatch(VirtualFrame frame, CallTarget target, Object subject) {
+    while ( true ) {
+      try {
+        return call(frame, target, subject);
+      }
+      catch ( TailCall k ) {
+        target  = k.target;
+        subject = k.subject;
+      }
+    }
+  }
+
+  private Object call(VirtualFrame frame, CallTarget target, Object subject) {
+    Object[] args = new Object[] { subject };
+    if ( null == cachedTarget && !megamorphic ) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      cachedTarget = target;
+      direct = insert(Truffle.getRuntime().createDirectCallNode(target));
+    }
+    if ( target == cachedTarget ) {
+      return direct.call(frame, args);
+    }
+    else {
+      if ( !megamorphic ) {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        megamorphic = true;
+      }
+      return indirect.call(frame, target, args);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.truffle.Context;
+
+public final class EscNode extends NoseNode {
+  private final Context context;
+  @Child private NoseNode ref;
+  @Child private NoseNode gof;
+
+  public EscNode(Context context, NoseNode ref, NoseNode gof) {
+    this.context = context;
+    this.ref = ref;
+    this.gof = gof;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    // same order as blok: gof first
+    Object g = gof.executeNoun(frame);
+    return net.frodwith.jaque.truffle.bloc.EscNode.escape(context, ref.executeNoun(frame), g);
+  }
+}
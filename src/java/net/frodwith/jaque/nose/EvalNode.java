@@ -0,0 +1,42 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.truffle.Context;
+
+public final class EvalNode extends NoseNode {
+  private final Context context;
+  private final boolean tail;
+  @Child private NoseNode subject;
+  @Child private NoseNode formula;
+  @Child private DispatchNode dispatch;
+
+  public EvalNode(Context context, NoseNode subject, NoseNode formula, boolean tail) {
+    this.context = context;
+    this.subject = subject;
+    this.formula = formula;
+    this.tail = tail;
+    this.dispatch = tail ? null : new DispatchNode();
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Object s = subject.executeNoun(frame);
+    CallTarget t;
+    try {
+      t = context.noseTarget(formula.executeCell(frame));
+    }
+    catch ( UnexpectedResultException e ) {
+      throw new Bail();
+    }
+    if ( tail ) {
+      throw new TailCall(t, s);
+    }
+    else {
+      return dispatch.executeDispatch(frame, t, s);
+    }
+  }
+}
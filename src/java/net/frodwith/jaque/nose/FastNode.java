@@ -0,0 +1,25 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.truffle.Context;
+
+public final class FastNode extends NoseNode {
+  private final Context context;
+  @Child private NoseNode clue;
+  @Child private NoseNode body;
+
+  public FastNode(Context context, NoseNode clue, NoseNode body) {
+    this.context = context;
+    this.clue = clue;
+    this.body = body;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Object c = clue.executeNoun(frame);
+    Object core = body.executeNoun(frame);
+    net.frodwith.jaque.truffle.bloc.FastNode.fast(context, core, c);
+    return core;
+  }
+}
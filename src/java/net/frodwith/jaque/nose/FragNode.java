@@ -0,0 +1,42 @@
+package net.frodwith.jaque.nose;
+
+import java.util.LinkedList;
+import java.util.Queue;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.data.Fragment;
+import net.frodwith.jaque.truffle.bloc.HeadOpNodeGen;
+import net.frodwith.jaque.truffle.bloc.ReadOpNode;
+import net.frodwith.jaque.truffle.bloc.TailOpNodeGen;
+
+public final class FragNode extends NoseNode {
+  @Child private NoseNode from;
+  @Children private final ReadOpNode[] reads;
+
+  public FragNode(NoseNode from, Axis axis) {
+    Queue<ReadOpNode> q = new LinkedList<ReadOpNode>();
+    for ( Fragment f : axis ) {
+      if ( Fragment.HEAD == f ) {
+        q.add(HeadOpNodeGen.create());
+      }
+      else {
+        q.add(TailOpNodeGen.create());
+      }
+    }
+    this.from = from;
+    this.reads = q.toArray(new ReadOpNode[q.size()]);
+  }
+
+  @ExplodeLoop
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Object r = from.executeNoun(frame);
+    for ( ReadOpNode node : reads ) {
+      r = node.executeRead(frame, r);
+    }
+    return r;
+  }
+}
@@ -0,0 +1,20 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/* a dynamic hint we don't recognize: compute it, but don't use it */
+public final class HintNode extends NoseNode {
+  @Child private NoseNode hint;
+  @Child private NoseNode body;
+
+  public HintNode(NoseNode hint, NoseNode body) {
+    this.hint = hint;
+    this.body = body;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    hint.executeNoun(frame);
+    return body.executeNoun(frame);
+  }
+}
@@ -0,0 +1,39 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.data.Atom;
+
+public final class IfNode extends NoseNode {
+  @Child private NoseNode test;
+  @Child private NoseNode yes;
+  @Child private NoseNode no;
+  private final ConditionProfile profile = ConditionProfile.createCountingProfile();
+
+  public IfNode(NoseNode test, NoseNode yes, NoseNode no) {
+    this.test = test;
+    this.yes = yes;
+    this.no = no;
+  }
+
+  private boolean decide(VirtualFrame frame) {
+    try {
+      long loob = test.executeLong(frame);
+      if ( Atom.YES != loob && Atom.NO != loob ) {
+        throw new Bail();
+      }
+      return profile.profile(Atom.YES == loob);
+    }
+    catch ( UnexpectedResultException e ) {
+      throw new Bail();
+    }
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    return decide(frame) ? yes.executeNoun(frame) : no.executeNoun(frame);
+  }
+}
@@ -0,0 +1,42 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Context;
+
+public final class KickNode extends NoseNode {
+  private final boolean tail;
+  @Child private NoseNode core;
+  @Child private KickOpNode kick;
+  @Child private DispatchNode dispatch;
+
+  public KickNode(Context context, NoseNode core, Axis axis, boolean tail) {
+    this.core = core;
+    this.tail = tail;
+    this.kick = KickOpNodeGen.create(context, axis);
+    this.dispatch = tail ? null : new DispatchNode();
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Cell c;
+    try {
+      c = core.executeCell(frame);
+    }
+    catch ( UnexpectedResultException e ) {
+      throw new Bail();
+    }
+    CallTarget t = kick.executeTarget(frame, c);
+    if ( tail ) {
+      throw new TailCall(t, c);
+    }
+    else {
+      return dispatch.executeDispatch(frame, t, c);
+    }
+  }
+}
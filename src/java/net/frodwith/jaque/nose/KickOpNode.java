@@ -0,0 +1,99 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.NodeFields;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.Location;
+import net.frodwith.jaque.data.Atom;
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.Types;
+import net.frodwith.jaque.truffle.TypesGen;
+import net.frodwith.jaque.truffle.bloc.CallOpNode;
+import net.frodwith.jaque.truffle.bloc.FineCheckNode;
+
+/* picks the target for a nock 9, the same way bloc's CallOpNode does */
+@TypeSystemReference(Types.class)
+@NodeFields({
+  @NodeField(name="context", type=Context.class),
+  @NodeField(name="axis", type=Axis.class)
+})
+public abstract class KickOpNode extends Node {
+  public abstract Context getContext();
+  public abstract Axis getAxis();
+  public abstract CallTarget executeTarget(VirtualFrame frame, Cell core);
+
+  @Specialization(
+    guards = { "driver != null",
+               "same(core, cachedBattery)",
+               "fineNode.executeFine(frame, core)" })
+  protected CallTarget jet(VirtualFrame frame, Cell core,
+      @Cached("canonical(core)") Object cachedBattery,
+      @Cached("getLocation(core)") Location location,
+      @Cached("getDriver(core, location)") CallTarget driver,
+      @Cached("getFineNode(location)") FineCheckNode fineNode) {
+    return driver;
+  }
+
+  @Specialization(guards = { "same(core, cachedBattery)" })
+  protected CallTarget cached(VirtualFrame frame, Cell core,
+      @Cached("canonical(core)") Object cachedBattery,
+      @Cached("unjetted(core)") CallTarget target) {
+    return target;
+  }
+
+  @Specialization
+  protected CallTarget uncached(VirtualFrame frame, Cell core) {
+    return unjetted(core);
+  }
+
+  protected static boolean same(Cell core, Object battery) {
+    return CallOpNode.same(core, battery);
+  }
+
+  protected Object canonical(Cell core) {
+    return CallOpNode.canonical(getContext(), core);
+  }
+
+  protected static FineCheckNode getFineNode(Location loc) {
+    return CallOpNode.getFineNode(loc);
+  }
+
+  protected Location getLocation(Cell core) {
+    return CallOpNode.getLocation(getContext(), core);
+  }
+
+  protected CallTarget unjetted(Cell core) {
+    try {
+      return getContext().noseTarget(TypesGen.expectCell(getAxis().fragment(core)));
+    }
+    catch ( UnexpectedResultException e ) {
+      throw new Bail();
+    }
+  }
+
+  @TruffleBoundary
+  protected CallTarget getDriver(Cell core, Location loc) {
+    CompilerAsserts.neverPartOfCompilation();
+    CallTarget jet = CallOpNode.getDriver(getContext(), getAxis(), loc, core);
+    if ( null == jet ) {
+      return null;
+    }
+    else {
+      String name = loc.label + ":" + Atom.toString(getAxis().atom);
+      return Truffle.getRuntime().createCallTarget(new NoseJetRootNode(name, jet));
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.MemoFront;
+
+public final class MemoNode extends NoseNode {
+  private final Context context;
+  private final MemoFront front;
+  @Child private NoseNode subject;
+  @Child private NoseNode body;
+
+  public MemoNode(Context context, Cell formula, NoseNode subject, NoseNode body) {
+    this.context = context;
+    this.front = context.memoFront(formula);
+    this.subject = subject;
+    this.body = body;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Object sub = subject.executeNoun(frame);
+    Object pro = front.get(sub);
+    if ( null == pro ) {
+      pro = body.executeNoun(frame);
+      if ( !context.rehearsing ) {
+        front.put(sub, pro);
+      }
+    }
+    return pro;
+  }
+}
@@ -0,0 +1,48 @@
+package net.frodwith.jaque.nose;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.LoopNode;
+
+import net.frodwith.jaque.truffle.bloc.BlocNode;
+import net.frodwith.jaque.truffle.bloc.Continuation;
+import net.frodwith.jaque.truffle.bloc.Pending;
+import net.frodwith.jaque.truffle.bloc.RootNode;
+import net.frodwith.jaque.truffle.bloc.TrampolineNode;
+
+/* Jets speak the bloc protocol (a data stack in, a continuation out). This
+ * adapts one to a nose call: core in, product out. Jets that fall back to
+ * nock (the ut memo, for instance) hand back continuations into blok code,
+ * which we trampoline here. */
+public final class NoseJetRootNode extends RootNode {
+  private final String name;
+  @Child private DirectCallNode jet;
+  @Child private LoopNode trampoline;
+
+  public NoseJetRootNode(String name, CallTarget jet) {
+    this.name = name;
+    this.jet = Truffle.getRuntime().createDirectCallNode(jet);
+    this.trampoline = Truffle.getRuntime().createLoopNode(new TrampolineNode());
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object execute(VirtualFrame frame) {
+    Deque<Object> data = new ArrayDeque<Object>();
+    Pending p = new Pending(data);
+    data.push(frame.getArguments()[0]);
+    BlocNode.setUp(frame, data, p);
+    p.current = (Continuation) jet.call(frame, p.args);
+    trampoline.executeLoop(frame);
+    return data.pop();
+  }
+}
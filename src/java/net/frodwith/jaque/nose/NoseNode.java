@@ -1,7 +1,26 @@
 package net.frodwith.jaque.nose;
 
+import com.oracle.truffle.api.dsl.TypeSystemReference;
+import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 
-public class NoseNode extends Node {
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Types;
+import net.frodwith.jaque.truffle.TypesGen;
 
+/* nose is the register tier: formulas are trees of expression nodes, and
+ * instead of a data stack each subject the formula binds lives in its own
+ * frame slot. */
+@TypeSystemReference(Types.class)
+public abstract class NoseNode extends Node {
+  public abstract Object executeNoun(VirtualFrame frame);
+
+  public long executeLong(VirtualFrame frame) throws UnexpectedResultException {
+    return TypesGen.expectLong(executeNoun(frame));
+  }
+
+  public Cell executeCell(VirtualFrame frame) throws UnexpectedResultException {
+    return TypesGen.expectCell(executeNoun(frame));
+  }
 }
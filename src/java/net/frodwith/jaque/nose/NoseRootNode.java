@@ -1,20 +1,26 @@
 package net.frodwith.jaque.nose;
 
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.FrameSlot;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.RootNode;
 
 import net.frodwith.jaque.truffle.NockLanguage;
 
-public class NoseRootNode extends RootNode {
+public final class NoseRootNode extends RootNode {
+  private final FrameSlot subject;
+  @Child private NoseNode body;
   
-  public NoseRootNode() {
-    super(NockLanguage.class, null, null);
+  public NoseRootNode(FrameDescriptor descriptor, FrameSlot subject, NoseNode body) {
+    super(NockLanguage.class, null, descriptor);
+    this.subject = subject;
+    this.body = body;
   }
 
   @Override
   public Object execute(VirtualFrame frame) {
-    // TODO Auto-generated method stub
-    return null;
+    frame.setObject(subject, frame.getArguments()[0]);
+    return body.executeNoun(frame);
   }
 
 }
@@ -0,0 +1,29 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Context;
+
+/* %mean, %lose, %hunk and %spot: push a trace item around the body */
+public final class PlaceNode extends NoseNode {
+  private final Context context;
+  private final Object kind;
+  @Child private NoseNode hint;
+  @Child private NoseNode body;
+
+  public PlaceNode(Context context, Object kind, NoseNode hint, NoseNode body) {
+    this.context = context;
+    this.kind = kind;
+    this.hint = hint;
+    this.body = body;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    context.stackPush(new Cell(kind, hint.executeNoun(frame)));
+    Object pro = body.executeNoun(frame);
+    context.stackPop();
+    return pro;
+  }
+}
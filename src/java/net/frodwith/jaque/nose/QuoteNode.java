@@ -0,0 +1,24 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.truffle.TypesGen;
+
+public final class QuoteNode extends NoseNode {
+  private final Object value;
+
+  public QuoteNode(Object value) {
+    this.value = value;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    return value;
+  }
+
+  @Override
+  public long executeLong(VirtualFrame frame) throws UnexpectedResultException {
+    return TypesGen.expectLong(value);
+  }
+}
@@ -0,0 +1,42 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.FrameSlot;
+import com.oracle.truffle.api.frame.FrameSlotTypeException;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.TypesGen;
+
+public final class ReadNode extends NoseNode {
+  private final FrameSlot slot;
+
+  public ReadNode(FrameSlot slot) {
+    this.slot = slot;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    return frame.getValue(slot);
+  }
+
+  @Override
+  public long executeLong(VirtualFrame frame) throws UnexpectedResultException {
+    try {
+      return frame.getLong(slot);
+    }
+    catch ( FrameSlotTypeException e ) {
+      throw new UnexpectedResultException(frame.getValue(slot));
+    }
+  }
+
+  @Override
+  public Cell executeCell(VirtualFrame frame) throws UnexpectedResultException {
+    try {
+      return TypesGen.expectCell(frame.getObject(slot));
+    }
+    catch ( FrameSlotTypeException e ) {
+      throw new UnexpectedResultException(frame.getValue(slot));
+    }
+  }
+}
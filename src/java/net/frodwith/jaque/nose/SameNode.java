@@ -0,0 +1,23 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.truffle.bloc.SameOpNode;
+import net.frodwith.jaque.truffle.bloc.SameOpNodeGen;
+
+public final class SameNode extends NoseNode {
+  @Child private NoseNode a;
+  @Child private NoseNode b;
+  @Child private SameOpNode same = SameOpNodeGen.create();
+
+  public SameNode(NoseNode a, NoseNode b) {
+    this.a = a;
+    this.b = b;
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Object x = a.executeNoun(frame);
+    return same.executeSame(frame, x, b.executeNoun(frame));
+  }
+}
@@ -0,0 +1,33 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.TypesGen;
+
+public final class SlogNode extends NoseNode {
+  private final Context context;
+  @Child private NoseNode hint;
+  @Child private NoseNode body;
+
+  public SlogNode(Context context, NoseNode hint, NoseNode body) {
+    this.context = context;
+    this.hint = hint;
+    this.body = body;
+  }
+
+  @TruffleBoundary
+  private void slog(Object tank) {
+    context.slog(tank);
+  }
+
+  @Override
+  public Object executeNoun(VirtualFrame frame) {
+    Object h = hint.executeNoun(frame);
+    if ( TypesGen.isCell(h) && !context.rehearsing ) {
+      slog(TypesGen.asCell(h).tail);
+    }
+    return body.executeNoun(frame);
+  }
+}
@@ -0,0 +1,18 @@
+package net.frodwith.jaque.nose;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.nodes.ControlFlowException;
+
+/* Thrown by calls in tail position. Whoever made the nearest non-tail call
+ * (a DispatchNode, or Context.nock at the top) catches it and makes the call
+ * in our place, so tail-recursive loops don't grow the java stack. */
+public final class TailCall extends ControlFlowException {
+  private static final long serialVersionUID = 1L;
+  public final CallTarget target;
+  public final Object subject;
+
+  public TailCall(CallTarget target, Object subject) {
+    this.target = target;
+    this.subject = subject;
+  }
+}
@@ -32,6 +32,7 @@ public class Boot implements Transaction<PrevalentSystem> {
     if ( s.context.locations != locations ) {
       s.context.locations.clear();
       s.context.locations.putAll(locations);
+      s.context.internBatteries();
     }
     s.arvo = this.arvo;
     s.who = this.who;
@@ -42,6 +42,7 @@ public class Wake implements TransactionWithQuery<PrevalentSystem,Boolean> {
     }
     else {
       Object old = s.sen;
+      s.arvo = s.context.dedupWoken(s.arvo);
       s.now = Time.now();
       s.sev = (long) Atom.mug(s.now);
       s.wen = s.kernel("scot", new Cell(DA, s.now));
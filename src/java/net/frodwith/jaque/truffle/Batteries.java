@@ -0,0 +1,61 @@
+package net.frodwith.jaque.truffle;
+
+import java.util.HashMap;
+
+import net.frodwith.jaque.data.Cell;
+
+/* Intern table for registered batteries. Every battery that gets a location
+ * (through %fast, or from a snapshot or boot) is kept here, and call sites
+ * swap whatever copy of a battery they see for the one in the table. That
+ * way the battery guards on kicks are almost always reference comparisons
+ * instead of walks over a huge formula tree. */
+public final class Batteries {
+  private final HashMap<Cell, Cell> table;
+  private long hits, misses;
+
+  public Batteries() {
+    this.table = new HashMap<Cell, Cell>();
+    this.hits = 0;
+    this.misses = 0;
+  }
+
+  // the table's copy of battery, which becomes battery itself if it's new
+  public Cell intern(Cell battery) {
+    Cell had = table.get(battery);
+    if ( null == had ) {
+      table.put(battery, battery);
+      return battery;
+    }
+    else {
+      return had;
+    }
+  }
+
+  // the table's copy of battery if there is one, otherwise battery itself
+  public Object canonical(Object battery) {
+    if ( !TypesGen.isCell(battery) ) {
+      return battery;
+    }
+    Cell had = table.get(TypesGen.asCell(battery));
+    if ( null == had ) {
+      ++misses;
+      return battery;
+    }
+    else {
+      ++hits;
+      return had;
+    }
+  }
+
+  public void clear() {
+    table.clear();
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  public String report() {
+    return String.format("batteries: %d interned, %d hits, %d misses", table.size(), hits, misses);
+  }
+}
@@ -12,6 +12,9 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -27,14 +30,20 @@ import net.frodwith.jaque.Fail;
 import net.frodwith.jaque.Interrupt;
 import net.frodwith.jaque.Location;
 import net.frodwith.jaque.blok.Block;
+import net.frodwith.jaque.blok.Optimizer;
 import net.frodwith.jaque.data.Atom;
 import net.frodwith.jaque.data.Axis;
 import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Hashcons;
 import net.frodwith.jaque.data.List;
 import net.frodwith.jaque.data.Noun;
+import net.frodwith.jaque.data.Parallel;
 import net.frodwith.jaque.data.Tank;
 import net.frodwith.jaque.data.Tape;
 import net.frodwith.jaque.data.Trel;
+import net.frodwith.jaque.nose.Compiler;
+import net.frodwith.jaque.nose.TailCall;
+import net.frodwith.jaque.truffle.bloc.BlockNode;
 import net.frodwith.jaque.truffle.bloc.BlockRootNode;
 import net.frodwith.jaque.truffle.bloc.TopRootNode;
 import net.frodwith.jaque.truffle.driver.Arm;
@@ -43,6 +52,12 @@ import net.frodwith.jaque.truffle.jet.SaveUtMemoRootNode;
 
 public class Context implements Serializable {
   
+  // which tier runs formulas: blok (the cps'd stack machine), nose (registers),
+  // or check (both, complaining when they disagree)
+  public enum Tier {
+    BLOK, NOSE, CHECK
+  }
+  
   private static class Invocation {
     public String name;
     public long begin;
@@ -60,23 +75,44 @@ public class Context implements Serializable {
     MEME = Atom.mote("meme"),
     EXIT = Atom.mote("exit");
   
+  // compiled formulas kept per tier, see jaque.codeCache
+  private static final long DEFAULT_CODE_CACHE = 65536;
+  // estimated words each memo cache may hold, see jaque.memoWeight
+  private static final long DEFAULT_MEMO_WEIGHT = 1L << 25;
+  // past this many words, an entry is just "big"
+  private static final int MEMO_WEIGH_LIMIT = 1 << 16;
+
   private static final Cell nullGul = new Trel(new Trel(1L, 0L, 0L).toCell(), 0L, 0L).toCell();
   
   // these can't be serialized
-  public transient Map<Cell, CallTarget> evalBlocks;
-  public transient Map<Cell, CallTarget> topBlocks;
+  public transient Cache<Cell, CallTarget> evalBlocks;
+  public transient Cache<Cell, CallTarget> topBlocks;
+  public transient Cache<Cell, CallTarget> noseBlocks;
   public transient CallTarget SAVE_MEMO;
   public transient Caller caller;
 
   // these are per-run, though they could be serialized */
-  public transient Map<Cell,Object> memo; // TODO: use a real caching algorithm for this, like vere
+  // ut jet products and %memo hint products, kept apart so each can be sized up
+  public transient Cache<Cell,Object> utMemo, hintMemo;
+  // one per memoized formula (by identity), see MemoFront
+  private transient Cache<Cell,MemoFront> memoFronts;
+  public transient long memoFrontHits, memoLookups, memoLookupNanos;
   public transient Map<String,Stats> times;
   public transient Deque<Invocation> calls;
   @CompilationFinal public transient boolean profile;
+  public transient Tier tier;
+  // set during check mode's nose run, which skips %slog and all memo saves
+  public transient boolean rehearsing;
+  public transient boolean optimize;
+  // run simple gate jets inline at the call site instead of through a call target
+  public transient boolean inlineJets;
+  // shares equal subtrees of loaded nouns (pills, snapshots); null when off
+  public transient Hashcons hashcons;
 
   // this is kind of a hack for soft, and should probably work differently
   // anyways we don't serialize it
   public transient Deque<Road> levels;
+  public transient Batteries batteries;
 
   // durable state
   public final HashMap<Cell, Location> locations;
@@ -85,17 +121,48 @@ public class Context implements Serializable {
   // this being static doesn't need special serialization logic
   private final static Logger logger = Logger.getGlobal();
   
+  // least recently used formulas go first, so hot arms stay compiled
+  private static Cache<Cell, CallTarget> codeCache(long cap) {
+    return CacheBuilder.newBuilder()
+      .maximumSize(cap)
+      .recordStats()
+      .build();
+  }
+
+  // bounded by (estimated) words of key and product, evicting the least recently used
+  private static Cache<Cell, Object> memoCache(long weight) {
+    return CacheBuilder.newBuilder()
+      .maximumWeight(weight)
+      .weigher((Cell k, Object v) -> Noun.weigh(k, MEMO_WEIGH_LIMIT) + Noun.weigh(v, MEMO_WEIGH_LIMIT))
+      .recordStats()
+      .build();
+  }
+
   private void initTransients() {
     caller = null;
     profile = false;
-    evalBlocks = new HashMap<Cell, CallTarget>();
-    topBlocks = new HashMap<Cell, CallTarget>();
+    long cap = Long.getLong("jaque.codeCache", DEFAULT_CODE_CACHE);
+    evalBlocks = codeCache(cap);
+    topBlocks = codeCache(cap);
+    noseBlocks = codeCache(cap);
+    optimize = Boolean.parseBoolean(System.getProperty("jaque.optimize", "true"));
+    inlineJets = Boolean.parseBoolean(System.getProperty("jaque.inlineJets", "true"));
+    hashcons = Boolean.getBoolean("jaque.dedup") ? new Hashcons() : null;
+    tier = Tier.valueOf(System.getProperty("jaque.tier", "blok").toUpperCase());
     SAVE_MEMO = Truffle.getRuntime().createCallTarget(new SaveUtMemoRootNode(this));
-    memo = new HashMap<Cell, Object>();
+    long weight = Long.getLong("jaque.memoWeight", DEFAULT_MEMO_WEIGHT);
+    utMemo = memoCache(weight);
+    hintMemo = memoCache(weight);
+    // a front refers to its formula, so weak keys alone would never let go:
+    // an entry lasts as long as some compiled memo node still uses the front
+    memoFronts = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+    memoFrontHits = memoLookups = memoLookupNanos = 0;
     times = null;
     calls = new ArrayDeque<Invocation>();
     levels = new ArrayDeque<Road>();
     levels.push(new Road(null));
+    batteries = new Batteries();
+    internBatteries();
     print("running on " + Truffle.getRuntime().getName());
   }
   
@@ -217,16 +284,29 @@ public class Context implements Serializable {
     return (sam) -> slam(gate, sam);
   }
   
+  private BlockNode compileBlock(Cell formula) throws UnexpectedResultException {
+    Block b = Block.compile(formula);
+    if ( optimize ) {
+      int before = Optimizer.count(b);
+      b = Optimizer.optimize(b);
+      if ( profile ) {
+        print(String.format("blok %08x: %d ops, %d after optimizing",
+              Noun.mug(formula), before, Optimizer.count(b)));
+      }
+    }
+    return b.cps(this);
+  }
+
   // nock: expression language, represented as cells
   // blok: stack-language with nock fundamental ops
   // bloc: cps-transformed blok, tail calls only, truffle nodes
   @TruffleBoundary
   public CallTarget evalTarget(Cell label) {
     CompilerAsserts.neverPartOfCompilation();
-    CallTarget t = evalBlocks.get(label);
+    CallTarget t = evalBlocks.getIfPresent(label);
     if ( null == t ) {
       try {
-        t = Truffle.getRuntime().createCallTarget(new BlockRootNode(Block.compile(label).cps(this)));
+        t = Truffle.getRuntime().createCallTarget(new BlockRootNode(compileBlock(label)));
         evalBlocks.put(label, t);
       }
       catch ( UnexpectedResultException e ) {
@@ -239,10 +319,10 @@ public class Context implements Serializable {
   @TruffleBoundary
   public CallTarget topTarget(Cell label) {
     CompilerAsserts.neverPartOfCompilation();
-    CallTarget t = topBlocks.get(label);
+    CallTarget t = topBlocks.getIfPresent(label);
     if ( null == t ) {
       try {
-        t = Truffle.getRuntime().createCallTarget(new TopRootNode(Block.compile(label).cps(this)));
+        t = Truffle.getRuntime().createCallTarget(new TopRootNode(compileBlock(label)));
         topBlocks.put(label, t);
       }
       catch ( UnexpectedResultException e ) {
@@ -252,9 +332,83 @@ public class Context implements Serializable {
     return t;
   }
   
+  // nose: expression trees over frame slots, calls are real calls
+  @TruffleBoundary
+  public CallTarget noseTarget(Cell label) {
+    CompilerAsserts.neverPartOfCompilation();
+    CallTarget t = noseBlocks.getIfPresent(label);
+    if ( null == t ) {
+      try {
+        t = Truffle.getRuntime().createCallTarget(Compiler.compile(this, label));
+        noseBlocks.put(label, t);
+      }
+      catch ( UnexpectedResultException e ) {
+        throw new Bail();
+      }
+    }
+    return t;
+  }
+  
   @TruffleBoundary
   public Object nock(Object subject, Cell formula) {
-    return topTarget(formula).call(subject);
+    switch ( tier ) {
+      case NOSE:
+        return noseNock(subject, formula);
+      case CHECK:
+        return checkNock(subject, formula);
+      default:
+        return topTarget(formula).call(subject);
+    }
+  }
+  
+  private Object noseNock(Object subject, Cell formula) {
+    CallTarget t = noseTarget(formula);
+    while ( true ) {
+      try {
+        return t.call(subject);
+      }
+      catch ( TailCall k ) {
+        t = k.target;
+        subject = k.subject;
+      }
+    }
+  }
+  
+  /* Runs the formula on nose, then again on blok, and complains if they
+   * disagree. Nested nocks (slams from jets, etc) stay on whichever tier is
+   * running. Hints with effects would happen twice, so the nose run is a
+   * rehearsal: it doesn't %slog, and it doesn't save %memo or ut jet
+   * products, which would otherwise let blok skip the very computation being
+   * checked. %fast registration still happens on both, but registering the
+   * same battery again changes nothing. */
+  private Object checkNock(Object subject, Cell formula) {
+    Object nose, blok;
+    tier = Tier.NOSE;
+    rehearsing = true;
+    try {
+      nose = noseNock(subject, formula);
+    }
+    catch ( Bail e ) {
+      nose = null;
+    }
+    finally {
+      rehearsing = false;
+      tier = Tier.CHECK;
+    }
+    tier = Tier.BLOK;
+    try {
+      blok = topTarget(formula).call(subject);
+    }
+    finally {
+      tier = Tier.CHECK;
+    }
+    if ( null == nose ) {
+      err(String.format("check: nose bailed on %x, blok didn't", Noun.mug(formula)));
+    }
+    else if ( !Parallel.equals(nose, blok) ) {
+      err(String.format("check: nose and blok disagree on %x", Noun.mug(formula)));
+    }
+    return blok;
   }
   
   private Object wrap(Supplier<Object> doer) {
@@ -290,12 +444,30 @@ public class Context implements Serializable {
     err(buf.toString());
   }
 
+  @TruffleBoundary
+  public String codeCacheReport() {
+    StringBuilder buf = new StringBuilder("code cache:");
+    reportCache(buf, "eval", evalBlocks);
+    reportCache(buf, "top", topBlocks);
+    reportCache(buf, "nose", noseBlocks);
+    return buf.toString();
+  }
+  
+  private static void reportCache(StringBuilder buf, String name, Cache<?,?> cache) {
+    CacheStats st = cache.stats();
+    buf.append(String.format(" %s %d entries, %d hits, %d misses, %d evictions;",
+          name, cache.size(), st.hitCount(), st.missCount(), st.evictionCount()));
+  }
+
   @TruffleBoundary
   public void dumpProfile() {
     for ( Map.Entry<String, Stats> kv : times.entrySet() ) {
       Stats st = kv.getValue();
       System.out.format("%s\t%s\t%s\n", kv.getKey(), st.own, st.total);
     }
+    print(codeCacheReport());
+    print(batteries.report());
+    print(memoReport());
   }
   
   public Object softEscape(Object ref, Object gof) {
@@ -424,7 +596,54 @@ public class Context implements Serializable {
 
   @TruffleBoundary
   public void register(Cell battery, Location location) {
-    locations.put(battery, location);
+    locations.put(batteries.intern(battery), location);
+  }
+
+  // after locations has been loaded wholesale (snapshot, boot)
+  @TruffleBoundary
+  public void internBatteries() {
+    batteries.clear();
+    for ( Cell battery : locations.keySet() ) {
+      batteries.intern(battery);
+    }
+  }
+  
+  /* a freshly loaded noun with equal subtrees shared, if enabled. This
+   * rewrites the noun's cells in place (see Hashcons), so only pass it
+   * nouns nothing else holds yet; use the result, which may be a different
+   * object from the one passed in. */
+  @TruffleBoundary
+  public Object dedup(Object noun) {
+    if ( null == hashcons ) {
+      return noun;
+    }
+    Object shared = hashcons.intern(noun);
+    print(hashcons.report());
+    return shared;
+  }
+
+  /* dedup for state woken from a snapshot. That isn't fresh: locations
+   * (and so the battery table) already holds arvo's batteries, and kick
+   * guards compare against those objects. So the batteries go through the
+   * hashcons table first, which makes them the copies arvo's cores get
+   * pointed at, and locations and the battery table are rebuilt around
+   * them. Use the result, as with dedup. */
+  @TruffleBoundary
+  public Object dedupWoken(Object arvo) {
+    if ( null == hashcons ) {
+      return arvo;
+    }
+    HashMap<Cell, Location> old = new HashMap<Cell, Location>(locations);
+    locations.clear();
+    for ( Map.Entry<Cell, Location> e : old.entrySet() ) {
+      locations.put(TypesGen.asCell(hashcons.intern(e.getKey())), e.getValue());
+    }
+    internBatteries();
+    return dedup(arvo);
+  }
+
+  public String dedupReport() {
+    return ( null == hashcons ) ? "hashcons: off" : hashcons.report();
   }
   
   @TruffleBoundary
@@ -447,11 +666,44 @@ public class Context implements Serializable {
 
   @TruffleBoundary
   public Object getMemo(Cell key) {
-    return memo.get(key);
+    return hintMemo.getIfPresent(key);
   }
 
   @TruffleBoundary
   public void saveMemo(Cell key, Object value) {
-    memo.put(key, value);
+    hintMemo.put(key, value);
+  }
+
+  @TruffleBoundary
+  public MemoFront memoFront(Cell formula) {
+    MemoFront front = memoFronts.getIfPresent(formula);
+    if ( null == front ) {
+      front = new MemoFront(this, formula);
+      memoFronts.put(formula, front);
+    }
+    return front;
+  }
+
+  @TruffleBoundary
+  public Object getUtMemo(Cell key) {
+    return utMemo.getIfPresent(key);
+  }
+
+  @TruffleBoundary
+  public void saveUtMemo(Cell key, Object value) {
+    utMemo.put(key, value);
+  }
+
+  @TruffleBoundary
+  public String memoReport() {
+    StringBuilder buf = new StringBuilder("memo:");
+    reportCache(buf, "ut", utMemo);
+    reportCache(buf, "hint", hintMemo);
+    // a front hit saves about what an average table lookup costs
+    long average = ( 0 == memoLookups ) ? 0 : memoLookupNanos / memoLookups;
+    buf.append(String.format(" front %d hits, %d table lookups in %dms, ~%dms saved;",
+          memoFrontHits, memoLookups, memoLookupNanos / 1000000,
+          memoFrontHits * average / 1000000));
+    return buf.toString();
   }
 }
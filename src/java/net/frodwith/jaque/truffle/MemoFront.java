@@ -0,0 +1,56 @@
+package net.frodwith.jaque.truffle;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+import net.frodwith.jaque.data.Cell;
+
+/* Identity-keyed front for the %memo hint cache. A lookup in hintMemo mugs
+ * the subject (all of it, the first time) and unifies it with the stored key
+ * on a hit, which for a big core can cost more than the computation being
+ * memoized. Each memoized formula gets one of these, remembering the exact
+ * subject objects it has recently seen, so asking again about the same core
+ * is a reference comparison. */
+public final class MemoFront {
+  private static final int SIZE = 64;
+
+  private final Context context;
+  private final Cell formula;
+  // weakKeys compares keys by identity, and doesn't keep subjects alive.
+  // weakValues leaves keeping products around to hintMemo, which is bounded
+  private final Cache<Object, Object> seen;
+
+  public MemoFront(Context context, Cell formula) {
+    this.context = context;
+    this.formula = formula;
+    this.seen = CacheBuilder.newBuilder()
+      .weakKeys()
+      .weakValues()
+      .maximumSize(SIZE)
+      .build();
+  }
+
+  @TruffleBoundary
+  public Object get(Object subject) {
+    Object pro = seen.getIfPresent(subject);
+    if ( null != pro ) {
+      ++context.memoFrontHits;
+      return pro;
+    }
+    long begin = System.nanoTime();
+    pro = context.getMemo(new Cell(formula, subject));
+    context.memoLookupNanos += System.nanoTime() - begin;
+    ++context.memoLookups;
+    if ( null != pro ) {
+      seen.put(subject, pro);
+    }
+    return pro;
+  }
+
+  @TruffleBoundary
+  public void put(Object subject, Object product) {
+    seen.put(subject, product);
+    context.saveMemo(new Cell(formula, subject), product);
+  }
+}
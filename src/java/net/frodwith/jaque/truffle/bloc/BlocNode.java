@@ -16,11 +16,15 @@ import net.frodwith.jaque.truffle.Types;
 public abstract class BlocNode extends Node {
   public static final FrameDescriptor DESCRIPTOR;
   protected static final FrameSlot STACK;
+  // continuations still to run, only used by frames that trampoline
+  protected static final FrameSlot PENDING;
 
   static {
     DESCRIPTOR = new FrameDescriptor();
     STACK = DESCRIPTOR.addFrameSlot("stack");
     STACK.setKind(FrameSlotKind.Object);
+    PENDING = DESCRIPTOR.addFrameSlot("pending");
+    PENDING.setKind(FrameSlotKind.Object);
   }
 
   @SuppressWarnings("unchecked")
@@ -32,4 +36,19 @@ public abstract class BlocNode extends Node {
       throw new RuntimeException("fatal frame slot error");
     }
   }
+
+  // for root nodes that run a trampoline over the frame
+  public static void setUp(VirtualFrame frame, Deque<Object> data, Pending pending) {
+    frame.setObject(STACK, data);
+    frame.setObject(PENDING, pending);
+  }
+
+  public static Pending getPending(VirtualFrame frame) {
+    try {
+      return (Pending) frame.getObject(PENDING);
+    }
+    catch (FrameSlotTypeException e) {
+      throw new RuntimeException("fatal frame slot error");
+    }
+  }
 }
@@ -21,6 +21,6 @@ public final class BlockNode extends BlocNode {
     for ( OpNode node : body ) {
       node.execute(frame);
     }
-    return hasFlow ? flow.execute(frame) : Continuation.ret();
+    return hasFlow ? flow.execute(frame) : Continuation.RET;
   }
 }
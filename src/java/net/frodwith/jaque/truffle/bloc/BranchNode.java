@@ -0,0 +1,52 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import java.util.Deque;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.data.Atom;
+import net.frodwith.jaque.truffle.TypesGen;
+
+/* a nock 6 whose branches have no calls in them, run inline in the
+ * enclosing block instead of bouncing off the trampoline like IfNode */
+public final class BranchNode extends OpNode {
+  @Children private final OpNode[] yes;
+  @Children private final OpNode[] no;
+  private final ConditionProfile test = ConditionProfile.createCountingProfile();
+
+  public BranchNode(OpNode[] yes, OpNode[] no) {
+    this.yes = yes;
+    this.no = no;
+  }
+
+  @ExplodeLoop
+  private static void run(VirtualFrame frame, OpNode[] body) {
+    for ( OpNode node : body ) {
+      node.execute(frame);
+    }
+  }
+
+  @Override
+  public void execute(VirtualFrame frame) {
+    Deque<Object> s = getStack(frame);
+    try {
+      long loob = TypesGen.expectLong(s.pop());
+      if ( Atom.YES != loob && Atom.NO != loob ) {
+        throw new Bail();
+      }
+      if ( test.profile(Atom.YES == loob) ) {
+        run(frame, yes);
+      }
+      else {
+        run(frame, no);
+      }
+    }
+    catch ( UnexpectedResultException e ) {
+      throw new Bail();
+    }
+  }
+}
@@ -19,10 +19,7 @@ public final class CallNode extends FlowNode {
 
   @Override
   public Continuation execute(VirtualFrame frame) {
-    Continuation k = (null == after)
-                   ? Continuation.ret()
-                   : Continuation.jump(after);
-    return opNode.executeCall(frame, context, k, getStack(frame).peek(), axis);
+    return opNode.executeCall(frame, context, next, getStack(frame).peek(), axis);
   }
 
 }
@@ -28,12 +28,26 @@ public abstract class CallOpNode extends BlocNode {
   
   public abstract Continuation executeCall(VirtualFrame frame, Context context, Continuation after, Object core, Axis axis);
   
+  // simple jets run right here in the caller's frame, no call target involved
+  @Specialization(
+    guards = { "impl != null",
+               "same(core, cachedBattery)",
+               "fineNode.executeFine(frame, core)" })
+  protected Continuation inline(VirtualFrame frame, Context context, Continuation after, Cell core, Axis axis,
+      @Cached("canonical(context, core)") Object cachedBattery,
+      @Cached("getLocation(context, core)") Location location,
+      @Cached("getInline(context, axis, location, core)") ImplementationNode impl,
+      @Cached("getFineNode(location)") FineCheckNode fineNode) {
+    impl.executeJet(frame);
+    return after;
+  }
+
   @Specialization(
     guards = { "driver != null",
-               "same(core.head, cachedBattery)",
+               "same(core, cachedBattery)",
                "fineNode.executeFine(frame, core)" })
   protected Continuation jet(VirtualFrame frame, Context context, Continuation after, Cell core, Axis axis,
-      @Cached("core.head") Object cachedBattery,
+      @Cached("canonical(context, core)") Object cachedBattery,
       @Cached("getLocation(context, core)") Location location,
       @Cached("getDriver(context, axis, location, core)") CallTarget driver,
       @Cached("getFineNode(location)") FineCheckNode fineNode,
@@ -41,9 +55,9 @@ public abstract class CallOpNode extends BlocNode {
     return cont;
   }
   
-  @Specialization(guards = { "same(core.head, cachedBattery)" })
+  @Specialization(guards = { "same(core, cachedBattery)" })
   protected Continuation cached(VirtualFrame frame, Context context, Continuation after, Cell core, Axis axis,
-      @Cached("core.head") Object cachedBattery,
+      @Cached("canonical(context, core)") Object cachedBattery,
       @Cached("unjetted(context, core, axis)") CallTarget target,
       @Cached("getContinuation(target, after)") Continuation cont) {
     return cont;
@@ -54,8 +68,29 @@ public abstract class CallOpNode extends BlocNode {
     return getContinuation(unjetted(context, core, axis), after);
   }
   
-  protected static boolean same(Object a, Object b) {
-    return Noun.equals(a, b);
+  // the interned copy of core's battery, which core is pointed at as well
+  @TruffleBoundary
+  public static Object canonical(Context context, Cell core) {
+    Object battery = context.batteries.canonical(core.head);
+    core.head = battery;
+    return battery;
+  }
+
+  public static boolean same(Cell core, Object battery) {
+    return core.head == battery || unify(core, battery);
+  }
+
+  // an equal copy we haven't seen: compare it once, then point the core at
+  // ours so the next check is by reference
+  @TruffleBoundary
+  private static boolean unify(Cell core, Object battery) {
+    if ( Noun.equals(core.head, battery) ) {
+      core.head = battery;
+      return true;
+    }
+    else {
+      return false;
+    }
   }
   
   protected static Continuation getContinuation(CallTarget target, Continuation k) {
@@ -73,17 +108,17 @@ public abstract class CallOpNode extends BlocNode {
     }
   }
   
-  protected static FineCheckNode getFineNode(Location loc) {
+  public static FineCheckNode getFineNode(Location loc) {
     return (loc == null) ? null : new FineCheckNode(loc);
   }
   
   @TruffleBoundary
-  protected static Location getLocation(Context context, Cell core) {
+  public static Location getLocation(Context context, Cell core) {
     CompilerAsserts.neverPartOfCompilation();
     return context.locations.get(core.head);
   }
   
-  protected static CallTarget unjetted(Context context, Cell core, Axis axis) {
+  public static CallTarget unjetted(Context context, Cell core, Axis axis) {
     try {
       return context.evalTarget(TypesGen.expectCell(axis.fragment(core)));
     }
@@ -93,7 +128,7 @@ public abstract class CallOpNode extends BlocNode {
   }
   
   @TruffleBoundary
-  protected CallTarget getDriver(Context context, Axis axis, Location loc, Cell core) {
+  public static ImplementationNode getImplementation(Context context, Axis axis, Location loc, Cell core) {
     CompilerAsserts.neverPartOfCompilation();
     if ( null == loc ) {
       return null;
@@ -112,11 +147,30 @@ public abstract class CallOpNode extends BlocNode {
           e.printStackTrace();
           return null;
         }
-        ImplementationNode impl = def.createNode(context, unjetted(context, core, axis));
-        String name = loc.label + ":" + Atom.toString(axis.atom);
-        JetRootNode root = new JetRootNode(name, impl);
-        return Truffle.getRuntime().createCallTarget(root);
+        return def.createNode(context, unjetted(context, core, axis));
       }
     }
   }
+
+  @TruffleBoundary
+  public static ImplementationNode getInline(Context context, Axis axis, Location loc, Cell core) {
+    if ( !context.inlineJets ) {
+      return null;
+    }
+    ImplementationNode impl = getImplementation(context, axis, loc, core);
+    return ( null != impl && impl.isSimple() ) ? impl : null;
+  }
+  
+  @TruffleBoundary
+  public static CallTarget getDriver(Context context, Axis axis, Location loc, Cell core) {
+    ImplementationNode impl = getImplementation(context, axis, loc, core);
+    if ( null == impl ) {
+      return null;
+    }
+    else {
+      String name = loc.label + ":" + Atom.toString(axis.atom);
+      JetRootNode root = new JetRootNode(name, impl);
+      return Truffle.getRuntime().createCallTarget(root);
+    }
+  }
 }
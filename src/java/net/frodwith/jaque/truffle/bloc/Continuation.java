@@ -2,21 +2,22 @@ package net.frodwith.jaque.truffle.bloc;
 
 import com.oracle.truffle.api.CallTarget;
 
-public class Continuation {
-  public CallTarget target;
-  public CallTarget after;
+/* Continuations are immutable, so flow nodes build the ones they need once
+ * (when their targets are known) and hand back the same instance every time.
+ * Nothing on the hot path should be calling jump() or call(). */
+public final class Continuation {
+  public static final Continuation RET = new Continuation(null, null);
+
+  public final CallTarget target;
+  public final CallTarget after;
   
   private Continuation(CallTarget target, CallTarget after) {
     this.target = target;
     this.after = after;
   }
   
-  public static Continuation ret() {
-    return new Continuation(null, null);
-  }
-  
   public static Continuation jump(CallTarget to) {
-    return new Continuation(to, null);
+    return (null == to) ? RET : new Continuation(to, null);
   }
   
   public static Continuation call(CallTarget target, CallTarget after) {
@@ -0,0 +1,26 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+
+/* a polymorphic inline cache of the targets one trampoline bounces between */
+public abstract class DispatchNode extends BlocNode {
+  public abstract Continuation executeDispatch(VirtualFrame frame, CallTarget target, Object[] args);
+
+  @Specialization(limit = "3", guards = "target == cachedTarget")
+  protected Continuation direct(VirtualFrame frame, CallTarget target, Object[] args,
+      @Cached("target") CallTarget cachedTarget,
+      @Cached("create(cachedTarget)") DirectCallNode callNode) {
+    return (Continuation) callNode.call(frame, args);
+  }
+
+  @Specialization(replaces = "direct")
+  protected Continuation indirect(VirtualFrame frame, CallTarget target, Object[] args,
+      @Cached("create()") IndirectCallNode callNode) {
+    return (Continuation) callNode.call(frame, target, args);
+  }
+}
@@ -4,7 +4,6 @@ import com.oracle.truffle.api.dsl.NodeField;
 import com.oracle.truffle.api.dsl.Specialization;
 
 import net.frodwith.jaque.data.Cell;
-import net.frodwith.jaque.data.Noun;
 
 @NodeField(name="expectedBattery", type=Object.class)
 public abstract class DynamicFineNode extends FineOpNode {
@@ -12,6 +11,6 @@ public abstract class DynamicFineNode extends FineOpNode {
   
   @Specialization
   public boolean fine(Cell core) {
-    return Noun.equals(core.head, getExpectedBattery());
+    return CallOpNode.same(core, getExpectedBattery());
   }
 }
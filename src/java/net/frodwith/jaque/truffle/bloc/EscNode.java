@@ -28,6 +28,10 @@ public final class EscNode extends OpNode {
     Deque<Object> s = getStack(frame);
     Object ref = s.pop();
     Object gof = s.pop();
+    s.push(escape(context, ref, gof));
+  }
+
+  public static Object escape(Context context, Object ref, Object gof) {
     Object pro = context.softEscape(ref, gof);
     if ( !Noun.isCell(pro) ) {
       throw new BlockException(gof);
@@ -40,7 +44,7 @@ public final class EscNode extends OpNode {
         throw new Bail();
       }
       else {
-        s.push(TypesGen.asCell(cro.tail).tail);
+        return TypesGen.asCell(cro.tail).tail;
       }
     }
   }
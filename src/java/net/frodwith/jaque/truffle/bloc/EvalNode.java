@@ -9,16 +9,21 @@ import net.frodwith.jaque.truffle.Context;
 
 public final class EvalNode extends FlowNode {
   private Context context;
-  @Child private EvalOpNode op = EvalOpNodeGen.create();
+  @Child private EvalOpNode op = EvalOpNodeGen.create(null);
 
   public EvalNode(Context context) {
     this.context = context;
   }
 
+  @Override
+  public void setAfter(CallTarget target) {
+    super.setAfter(target);
+    op = insert(EvalOpNodeGen.create(target));
+  }
+
   public Continuation execute(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
     Object formula = s.pop();
-    CallTarget t = op.executeTarget(frame, context, formula);
-    return Continuation.call(t, after);
+    return op.executeEval(frame, context, formula);
   }
 }
@@ -1,17 +1,34 @@
 package net.frodwith.jaque.truffle.bloc;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.NodeField;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
 import net.frodwith.jaque.data.Cell;
 import net.frodwith.jaque.truffle.Context;
 
+// after is null in tail position, so it's a field rather than an argument the DSL would type-check
+@NodeField(name = "after", type = CallTarget.class)
 public abstract class EvalOpNode extends BlocNode {
-  public abstract CallTarget executeTarget(VirtualFrame frame, Context context, Object formula);
+  public abstract Continuation executeEval(VirtualFrame frame, Context context, Object formula);
+  public abstract CallTarget getAfter();
   
-  @Specialization
-  public CallTarget target(Context context, Cell formula) {
-    return context.evalTarget(formula);
+  // formulas usually come out of batteries, so the same cell shows up each time
+  @Specialization(limit = "3", guards = "formula == cachedFormula")
+  protected Continuation cached(Context context, Cell formula,
+      @Cached("formula") Cell cachedFormula,
+      @Cached("call(context, cachedFormula, getAfter())") Continuation k) {
+    return k;
+  }
+
+  @Specialization(replaces = "cached")
+  protected Continuation uncached(Context context, Cell formula) {
+    return call(context, formula, getAfter());
+  }
+
+  protected static Continuation call(Context context, Cell formula, CallTarget after) {
+    return Continuation.call(context.evalTarget(formula), after);
   }
 }
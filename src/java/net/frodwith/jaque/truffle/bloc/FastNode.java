@@ -11,6 +11,7 @@ import net.frodwith.jaque.data.Atom;
 import net.frodwith.jaque.data.Axis;
 import net.frodwith.jaque.data.Cell;
 import net.frodwith.jaque.data.Clue;
+import net.frodwith.jaque.data.Parallel;
 import net.frodwith.jaque.truffle.Context;
 
 public final class FastNode extends OpNode {
@@ -21,7 +22,10 @@ public final class FastNode extends OpNode {
   }
   
   @TruffleBoundary
-  private Location find(Cell core, Cell battery, Object rawClue) throws UnexpectedResultException {
+  private static Location find(Context context, Cell core, Cell battery, Object rawClue) throws UnexpectedResultException {
+    // the lookup hashes the battery, and a new battery's first mug can be a
+    // walk over a lot of formula
+    Parallel.mug(battery);
     if ( context.locations.containsKey(battery) ) {
       // we do this rather than replacing with toss after register because technically the same call site
       // can produce different fast-hinted cores with dynamically produced clues, although afaik this is
@@ -46,15 +50,11 @@ public final class FastNode extends OpNode {
     }
   }
     
-  public void execute(VirtualFrame frame) {
-    Deque<Object> s = getStack(frame);
+  public static void fast(Context context, Object rawCore, Object rawClue) {
     try {
-      Object rawCore = s.pop();
-      Object rawClue = s.pop();
-      s.push(rawCore);
       Cell core    = Cell.expect(rawCore),
            battery = Cell.expect(core.head);
-      Location loc = find(core, battery, rawClue);
+      Location loc = find(context, core, battery, rawClue);
       if ( null != loc ) {
         context.register(battery, loc);
       }
@@ -62,4 +62,12 @@ public final class FastNode extends OpNode {
     catch ( UnexpectedResultException e ) {
     }
   }
+
+  public void execute(VirtualFrame frame) {
+    Deque<Object> s = getStack(frame);
+    Object rawCore = s.pop();
+    Object rawClue = s.pop();
+    s.push(rawCore);
+    fast(context, rawCore, rawClue);
+  }
 }
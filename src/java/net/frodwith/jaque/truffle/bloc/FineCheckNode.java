@@ -1,6 +1,5 @@
 package net.frodwith.jaque.truffle.bloc;
 
-import java.util.Deque;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -42,19 +41,16 @@ public final class FineCheckNode extends BlocNode {
   
   @ExplodeLoop
   public boolean executeFine(VirtualFrame frame, Object core) {
+    // doesn't touch the data stack, so callers outside of bloc can use it
     try {
-      Deque<Object> s = getStack(frame);
-      boolean pass = true;
-      s.push(core);
+      Object part = core;
       for ( int i = 0; i < frags.length; ++i ) {
-        frags[i].execute(frame);
-        if ( !checks[i].executeFine(frame, s.peek()) ) {
-          pass = false;
-          break;
+        part = frags[i].fragment(frame, part);
+        if ( !checks[i].executeFine(frame, part) ) {
+          return false;
         }
       }
-      s.pop();
-      return pass;
+      return true;
     }
     catch ( UnsupportedSpecializationException e ) {
       return false;
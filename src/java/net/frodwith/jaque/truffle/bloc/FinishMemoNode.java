@@ -6,14 +6,13 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 
 import net.frodwith.jaque.data.Cell;
 import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.MemoFront;
 
 public class FinishMemoNode extends OpNode {
-  private final Context context;
-  private final Cell formula;
+  private final MemoFront front;
   
   public FinishMemoNode(Context context, Cell formula) {
-    this.context = context;
-    this.formula = formula;
+    this.front = context.memoFront(formula);
   }
 
   @Override
@@ -21,8 +20,7 @@ public class FinishMemoNode extends OpNode {
     Deque<Object> s = getStack(frame);
     Object product = s.pop();
     Object subject = s.pop();
-    Cell key = new Cell(formula, subject);
-    context.saveMemo(key, product);
+    front.put(subject, product);
     s.push(product);
   }
 
@@ -9,8 +9,11 @@ public abstract class FlowNode extends BlocNode {
      some code to run after the eval, i.e. a continuation.
      blok exists to arrange this. */
   @CompilationFinal protected CallTarget after = null;
+  // ret, or a jump to after
+  @CompilationFinal protected Continuation next = Continuation.RET;
   public abstract Continuation execute(VirtualFrame frame);
   public void setAfter(CallTarget target) {
     after = target;
+    next = Continuation.jump(target);
   }
 }
@@ -30,12 +30,15 @@ public final class FragNode extends OpNode {
   }
 
   @ExplodeLoop
-  public void execute(VirtualFrame frame) {
-    Deque<Object> s = getStack(frame);
-    Object r = s.pop();
+  public Object fragment(VirtualFrame frame, Object r) {
     for ( ReadOpNode node : reads ) {
       r = node.executeRead(frame, r);
     }
-    s.push(r);
+    return r;
+  }
+
+  public void execute(VirtualFrame frame) {
+    Deque<Object> s = getStack(frame);
+    s.push(fragment(frame, s.pop()));
   }
 }
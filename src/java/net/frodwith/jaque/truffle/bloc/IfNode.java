@@ -3,6 +3,7 @@ package net.frodwith.jaque.truffle.bloc;
 import java.util.Deque;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import com.oracle.truffle.api.profiles.ConditionProfile;
@@ -12,12 +13,22 @@ import net.frodwith.jaque.data.Atom;
 import net.frodwith.jaque.truffle.TypesGen;
 
 public class IfNode extends FlowNode {
-  private CallTarget yes, no;
+  private final CallTarget yes, no;
+  @CompilationFinal private Continuation yesK, noK;
   private final ConditionProfile test = ConditionProfile.createCountingProfile();
   
   public IfNode(CallTarget yes, CallTarget no) {
     this.yes = yes;
     this.no = no;
+    this.yesK = Continuation.jump(yes);
+    this.noK = Continuation.jump(no);
+  }
+
+  @Override
+  public void setAfter(CallTarget target) {
+    super.setAfter(target);
+    yesK = Continuation.call(yes, target);
+    noK = Continuation.call(no, target);
   }
 
   @Override
@@ -27,10 +38,10 @@ public class IfNode extends FlowNode {
       long loob = TypesGen.expectLong(s.pop());
       if ( 1L == loob || 0L == loob ) {
         if ( test.profile(Atom.YES == loob) ) {
-          return Continuation.call(yes, after);
+          return yesK;
         }
         else {
-          return Continuation.call(no, after);
+          return noK;
         }
       }
       else {
@@ -0,0 +1,43 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import java.util.Arrays;
+import java.util.Deque;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+
+/* trampoline state: the continuation being run, and an array stack of the
+ * afters we still owe. One of these is made per trampoline, not per bounce. */
+public final class Pending {
+  private static final int INITIAL = 64;
+
+  public Continuation current;
+  public final Object[] args;
+  private CallTarget[] afters;
+  private int top;
+
+  public Pending(Deque<Object> data) {
+    this.current = Continuation.RET;
+    this.args = new Object[] { data };
+    this.afters = new CallTarget[INITIAL];
+    this.top = 0;
+  }
+
+  public boolean isEmpty() {
+    return 0 == top;
+  }
+
+  public void push(CallTarget after) {
+    if ( top == afters.length ) {
+      CompilerDirectives.transferToInterpreter();
+      afters = Arrays.copyOf(afters, afters.length * 2);
+    }
+    afters[top++] = after;
+  }
+
+  public CallTarget pop() {
+    CallTarget t = afters[--top];
+    afters[top] = null;
+    return t;
+  }
+}
@@ -0,0 +1,32 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import java.util.Deque;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.truffle.Context;
+
+public final class PullNode extends FlowNode {
+  private final Axis arm;
+  private final Context context;
+  @Child private FragNode core;
+  @Child private CallOpNode opNode;
+
+  public PullNode(Context context, Axis core, Axis arm) {
+    this.context = context;
+    this.arm = arm;
+    this.core = new FragNode(core);
+    this.opNode = CallOpNodeGen.create();
+    insert(this.core);
+    insert(opNode);
+  }
+
+  @Override
+  public Continuation execute(VirtualFrame frame) {
+    Deque<Object> s = getStack(frame);
+    Object c = core.fragment(frame, s.pop());
+    s.push(c);
+    return opNode.executeCall(frame, context, next, c, arm);
+  }
+}
@@ -0,0 +1,39 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import java.util.Deque;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.data.Axis;
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Context;
+
+public final class SlamNode extends FlowNode {
+  private final Axis arm;
+  private final Context context;
+  @Child private FragNode battery;
+  @Child private FragNode payload;
+  @Child private CallOpNode opNode;
+
+  public SlamNode(Context context, Axis battery, Axis payload, Axis arm) {
+    this.context = context;
+    this.arm = arm;
+    this.battery = new FragNode(battery);
+    this.payload = new FragNode(payload);
+    this.opNode = CallOpNodeGen.create();
+    insert(this.battery);
+    insert(this.payload);
+    insert(opNode);
+  }
+
+  @Override
+  public Continuation execute(VirtualFrame frame) {
+    Deque<Object> s = getStack(frame);
+    Object sample  = s.pop(),
+           subject = s.pop();
+    Cell core = new Cell(battery.fragment(frame, subject),
+                         new Cell(sample, payload.fragment(frame, subject)));
+    s.push(core);
+    return opNode.executeCall(frame, context, next, core, arm);
+  }
+}
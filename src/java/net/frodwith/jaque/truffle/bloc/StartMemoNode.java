@@ -3,34 +3,45 @@ package net.frodwith.jaque.truffle.bloc;
 import java.util.Deque;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 
 import net.frodwith.jaque.data.Cell;
 import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.MemoFront;
 
 public class StartMemoNode extends FlowNode {
   public final CallTarget compute;
   public final Cell formula;
   public final Context context;
+  private final MemoFront front;
+  @CompilationFinal private Continuation computeK;
   
   public StartMemoNode(Context context, Cell formula, CallTarget compute) {
     this.context = context;
     this.formula = formula;
+    this.front = context.memoFront(formula);
     this.compute = compute;
+    this.computeK = Continuation.jump(compute);
+  }
+
+  @Override
+  public void setAfter(CallTarget target) {
+    super.setAfter(target);
+    computeK = Continuation.call(compute, target);
   }
 
   @Override
   public Continuation execute(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
-    Cell key = new Cell(formula, s.peek());
-    Object pro = context.getMemo(key);
+    Object pro = front.get(s.peek());
     if ( null == pro ) {
       s.push(s.peek());
-      return Continuation.call(compute, after);
+      return computeK;
     }
     else {
       s.push(pro);
-      return Continuation.jump(after);
+      return next;
     }
   }
 
@@ -0,0 +1,29 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.Context;
+
+public final class StaticEvalNode extends FlowNode {
+  private final Context context;
+  private final Cell formula;
+  // compiled on first use, so we don't compile code that never runs
+  @CompilationFinal private Continuation k = null;
+
+  public StaticEvalNode(Context context, Cell formula) {
+    this.context = context;
+    this.formula = formula;
+  }
+
+  @Override
+  public Continuation execute(VirtualFrame frame) {
+    if ( null == k ) {
+      CompilerDirectives.transferToInterpreterAndInvalidate();
+      k = Continuation.call(context.evalTarget(formula), after);
+    }
+    return k;
+  }
+}
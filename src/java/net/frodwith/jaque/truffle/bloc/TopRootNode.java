@@ -3,35 +3,27 @@ package net.frodwith.jaque.truffle.bloc;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
-import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.nodes.LoopNode;
 
 public class TopRootNode extends RootNode {
   @Child private BlockNode program;
-  @Child private IndirectCallNode callNode;
+  @Child private LoopNode trampoline;
   
   public TopRootNode(BlockNode program) {
     this.program = program;
-    this.callNode = IndirectCallNode.create();
+    this.trampoline = Truffle.getRuntime().createLoopNode(new TrampolineNode());
   }
 
   @Override
   public Object execute(VirtualFrame frame) {
     Deque<Object> data = new ArrayDeque<Object>();
-    Deque<Continuation> cont = new ArrayDeque<Continuation>();
+    Pending p = new Pending(data);
     data.push(frame.getArguments()[0]);
-    Object[] args = new Object[] { data };
-    frame.setObject(BlocNode.STACK, data);
-    cont.push(program.execute(frame));
-    while ( !cont.isEmpty() ) {
-      Continuation k = cont.pop();
-      if ( null != k.target ) {
-        if ( null != k.after ) {
-          cont.push(Continuation.jump(k.after));
-        }
-        cont.push( (Continuation) callNode.call(frame, k.target, args) );
-      }
-    }
+    BlocNode.setUp(frame, data, p);
+    p.current = program.execute(frame);
+    trampoline.executeLoop(frame);
     return data.pop();
   }
 
@@ -0,0 +1,33 @@
+package net.frodwith.jaque.truffle.bloc;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RepeatingNode;
+
+/* One bounce per iteration, so hot cycles of tail calls look like a loop to
+ * the compiler and can be OSR'd. Expects the frame's STACK and PENDING slots
+ * to be set up by the root node that owns the loop. Allocates nothing. */
+public final class TrampolineNode extends BlocNode implements RepeatingNode {
+  @Child private DispatchNode dispatch = DispatchNodeGen.create();
+
+  @Override
+  public boolean executeRepeating(VirtualFrame frame) {
+    Pending p = getPending(frame);
+    Continuation k = p.current;
+    CallTarget next;
+    if ( null == k.target ) {
+      if ( p.isEmpty() ) {
+        return false;
+      }
+      next = p.pop();
+    }
+    else {
+      if ( null != k.after ) {
+        p.push(k.after);
+      }
+      next = k.target;
+    }
+    p.current = dispatch.executeDispatch(frame, next, p.args);
+    return true;
+  }
+}
@@ -15,6 +15,11 @@ public final class AesCbcNode extends ImplementationNode {
     this.op = op;
   }
   
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
   @Override
   public Continuation executeJet(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
@@ -25,7 +30,7 @@ public final class AesCbcNode extends ImplementationNode {
       Cell conSam    = Cell.expect(Cell.expect(context.tail).head);
       Object product = op.executeTernary(frame, conSam.head, conSam.tail, payload.head);
       s.push(product);
-      return Continuation.ret();
+      return Continuation.RET;
     }
     catch ( UnexpectedResultException e ) {
       throw new Bail();
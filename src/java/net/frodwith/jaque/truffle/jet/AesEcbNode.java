@@ -16,6 +16,11 @@ public final class AesEcbNode extends ImplementationNode {
     this.op = op;
   }
   
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
   @Override
   public Continuation executeJet(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
@@ -26,7 +31,7 @@ public final class AesEcbNode extends ImplementationNode {
       Object conSam  = Cell.expect(context.tail).head;
       Object product = op.executeBinary(frame, conSam, payload.head);
       s.push(product);
-      return Continuation.ret();
+      return Continuation.RET;
     }
     catch ( UnexpectedResultException e ) {
       throw new Bail();
@@ -0,0 +1,42 @@
+package net.frodwith.jaque.truffle.jet;
+
+import java.util.Deque;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
+
+import net.frodwith.jaque.Bail;
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.truffle.bloc.Continuation;
+
+/* A gate built by an arm of a door, like put:by. The op gets the door's
+ * sample (+30 of the gate) and the gate's sample (+6). */
+public final class DoorGateNode extends ImplementationNode {
+  @Child private BinaryOpNode op;
+  
+  public DoorGateNode(BinaryOpNode op) {
+    this.op = op;
+  }
+  
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
+  @Override
+  public Continuation executeJet(VirtualFrame frame) {
+    Deque<Object> s = getStack(frame);
+    Object subject  = s.pop();
+    try {
+      Cell   payload  = Cell.expect(Cell.expect(subject).tail);
+      Cell   door     = Cell.expect(payload.tail);
+      Object door_sam = Cell.expect(door.tail).head;
+      Object product  = op.executeBinary(frame, door_sam, payload.head);
+      s.push(product);
+      return Continuation.RET;
+    }
+    catch ( UnexpectedResultException e ) {
+      throw new Bail();
+    }
+  }
+}
@@ -16,6 +16,11 @@ public final class GateNode extends ImplementationNode {
     this.op = op;
   }
 
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
   @Override
   public Continuation executeJet(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
@@ -25,7 +30,7 @@ public final class GateNode extends ImplementationNode {
       Object sample   = Cell.expect(payload).head;
       Object product  = op.executeUnary(frame, sample);
       s.push(product);
-      return Continuation.ret();
+      return Continuation.RET;
     }
     catch ( UnexpectedResultException e ) {
       throw new Bail();
@@ -8,6 +8,12 @@ import net.frodwith.jaque.truffle.bloc.Continuation;
 
 public abstract class ImplementationNode extends BlocNode {
   public abstract Continuation executeJet(VirtualFrame frame);
+
+  /* true if executeJet only ever replaces the core on top of the stack with
+   * a product and returns RET, so it can run in the caller's frame */
+  public boolean isSimple() {
+    return false;
+  }
   
   // FIXME: the way this is set up, specialized return types aren't used (see warning
   //        about executeCell_ in DvrNodeGen
@@ -16,6 +16,11 @@ public final class PairGateNode extends ImplementationNode {
     this.op = op;
   }
   
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
   @Override
   public Continuation executeJet(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
@@ -25,7 +30,7 @@ public final class PairGateNode extends ImplementationNode {
       Cell   sample   = Cell.expect(Cell.expect(payload).head);
       Object product  = op.executeBinary(frame, sample.head, sample.tail);
       s.push(product);
-      return Continuation.ret();
+      return Continuation.RET;
     }
     catch ( UnexpectedResultException e ) {
       throw new Bail();
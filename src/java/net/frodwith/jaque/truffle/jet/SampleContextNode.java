@@ -16,6 +16,11 @@ public final class SampleContextNode extends ImplementationNode {
     this.op = op;
   }
   
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
   @Override
   public Continuation executeJet(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
@@ -24,7 +29,7 @@ public final class SampleContextNode extends ImplementationNode {
       Cell payload   = Cell.expect(Cell.expect(subject).tail);
       Object product = op.executeBinary(frame, payload.head, payload.tail);
       s.push(product);
-      return Continuation.ret();
+      return Continuation.RET;
     }
     catch ( UnexpectedResultException e ) {
       throw new Bail();
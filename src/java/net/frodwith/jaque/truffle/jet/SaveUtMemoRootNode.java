@@ -22,9 +22,12 @@ public class SaveUtMemoRootNode extends RootNode {
     Deque<Object> s = (Deque<Object>) frame.getArguments()[0];
     Object product = s.pop();
     Cell   key     = Cell.orBail(s.pop());
-    context.saveMemo(key, product);
+    // check mode's nose run mustn't hand blok its answers
+    if ( !context.rehearsing ) {
+      context.saveUtMemo(key, product);
+    }
     s.push(product);
-    return Continuation.ret();
+    return Continuation.RET;
   }
   
 }
@@ -17,6 +17,11 @@ public final class TrelGateNode extends ImplementationNode {
     this.op = op;
   }
 
+  @Override
+  public boolean isSimple() {
+    return true;
+  }
+
   @Override
   public Continuation executeJet(VirtualFrame frame) {
     Deque<Object> s = getStack(frame);
@@ -26,7 +31,7 @@ public final class TrelGateNode extends ImplementationNode {
       Trel   sample   = Trel.expect(Cell.expect(payload).head);
       Object product  = op.executeTernary(frame, sample.p, sample.q, sample.r);
       s.push(product);
-      return Continuation.ret();
+      return Continuation.RET;
     }
     catch ( UnexpectedResultException e ) {
       throw new Bail();
@@ -16,6 +16,7 @@ import net.frodwith.jaque.truffle.bloc.Continuation;
 public abstract class UtNode extends ImplementationNode {
   public final Context context;
   public final CallTarget fallback;
+  private final Continuation compute;
   
   protected static final long verTip = 151L;
   protected static final Axis vanVet = new Axis(118L);
@@ -39,6 +40,7 @@ public abstract class UtNode extends ImplementationNode {
   protected UtNode(Context context, CallTarget fallback) {
     this.context = context;
     this.fallback = fallback;
+    this.compute = Continuation.call(fallback, context.SAVE_MEMO);
   }
   
   public Continuation executeJet(VirtualFrame frame) {
@@ -46,15 +48,15 @@ public abstract class UtNode extends ImplementationNode {
     try {
       Cell core       = Cell.expect(s.pop());
       Cell key        = getKey(core);
-      Object product  = context.getMemo(key);
+      Object product  = context.getUtMemo(key);
       if ( null == product ) {
         s.push(key);
         s.push(core);
-        return Continuation.call(fallback, context.SAVE_MEMO);
+        return compute;
       }
       else {
         s.push(product);
-        return Continuation.ret();
+        return Continuation.RET;
       }
     }
     catch ( UnexpectedResultException e ) {
@@ -0,0 +1,16 @@
+package net.frodwith.jaque.truffle.jet.def;
+
+import com.oracle.truffle.api.CallTarget;
+
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.Definition;
+import net.frodwith.jaque.truffle.jet.DoorGateNode;
+import net.frodwith.jaque.truffle.jet.ImplementationNode;
+import net.frodwith.jaque.truffle.jet.ops.OgRawNodeGen;
+
+public final class OgRaw extends Definition {
+  @Override
+  public ImplementationNode createNode(Context context, CallTarget fallback) {
+    return new DoorGateNode(OgRawNodeGen.create());
+  }
+}
@@ -0,0 +1,16 @@
+package net.frodwith.jaque.truffle.jet.def;
+
+import com.oracle.truffle.api.CallTarget;
+
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.Definition;
+import net.frodwith.jaque.truffle.jet.ImplementationNode;
+import net.frodwith.jaque.truffle.jet.PairGateNode;
+import net.frodwith.jaque.truffle.jet.ops.ReelNodeGen;
+
+public final class Reel extends Definition {
+  @Override
+  public ImplementationNode createNode(Context context, CallTarget fallback) {
+    return new PairGateNode(ReelNodeGen.create(context));
+  }
+}
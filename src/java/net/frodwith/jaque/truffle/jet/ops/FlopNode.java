@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.jet.UnaryOpNode;
+
+public abstract class FlopNode extends UnaryOpNode {
+  @Specialization
+  protected Object flop(Object a) {
+    return List.flop(a);
+  }
+}
@@ -2,12 +2,12 @@ package net.frodwith.jaque.truffle.jet.ops;
 
 import com.oracle.truffle.api.dsl.Specialization;
 
-import net.frodwith.jaque.data.Atom;
+import net.frodwith.jaque.data.Jam;
 import net.frodwith.jaque.truffle.jet.UnaryOpNode;
 
 public abstract class JamNode extends UnaryOpNode {
   @Specialization
   protected Object jam(Object noun) {
-    return Atom.jam(noun);
+    return Jam.jam(noun);
   }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.jet.UnaryOpNode;
+
+public abstract class LentNode extends UnaryOpNode {
+  @Specialization
+  protected Object lent(Object a) {
+    return List.lent(a);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Hash;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class OgRadNode extends BinaryOpNode {
+  @Specialization
+  protected Object rad(Object a, Object b) {
+    return Hash.rad(a, b);
+  }
+}
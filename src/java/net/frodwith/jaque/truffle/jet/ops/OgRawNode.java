@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Hash;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class OgRawNode extends BinaryOpNode {
+  @Specialization
+  protected Object raw(Object a, Object b) {
+    return Hash.raw(a, b);
+  }
+}
@@ -0,0 +1,22 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class RollNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object roll(Object a, Object b) {
+    Cell gate = Cell.orBail(b);
+    // the accumulator starts out as the gate's default, +<+
+    Object seed = Cell.orBail(Cell.orBail(gate.tail).head).tail;
+    return List.roll(getContext().slammer(gate), seed, a);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class ScagNode extends BinaryOpNode {
+  @Specialization
+  protected Object scag(Object a, Object b) {
+    return List.scag(a, b);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Hash;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class ShasNode extends BinaryOpNode {
+  @Specialization
+  protected Object shas(Object sal, Object ruz) {
+    return Hash.shas(sal, ruz);
+  }
+}
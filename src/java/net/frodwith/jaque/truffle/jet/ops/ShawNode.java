@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Hash;
+import net.frodwith.jaque.truffle.jet.TernaryOpNode;
+
+public abstract class ShawNode extends TernaryOpNode {
+  @Specialization
+  protected Object shaw(Object sal, Object len, Object ruz) {
+    return Hash.shaw(sal, len, ruz);
+  }
+}
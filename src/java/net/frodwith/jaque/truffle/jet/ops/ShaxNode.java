@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Hash;
+import net.frodwith.jaque.truffle.jet.UnaryOpNode;
+
+public abstract class ShaxNode extends UnaryOpNode {
+  @Specialization
+  protected Object shax(Object ruz) {
+    return Hash.shax(ruz);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class SlagNode extends BinaryOpNode {
+  @Specialization
+  protected Object slag(Object a, Object b) {
+    return List.slag(a, b);
+  }
+}
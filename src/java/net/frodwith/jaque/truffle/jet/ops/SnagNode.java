@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class SnagNode extends BinaryOpNode {
+  @Specialization
+  protected Object snag(Object a, Object b) {
+    return List.snag(a, b);
+  }
+}
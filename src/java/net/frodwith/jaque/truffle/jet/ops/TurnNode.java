@@ -0,0 +1,19 @@
+package net.frodwith.jaque.truffle.jet.ops;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.List;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class TurnNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object turn(Object a, Object b) {
+    return List.turn(getContext().slammer(Cell.orBail(b)), a);
+  }
+}
@@ -0,0 +1,20 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class ColdFunNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object fun(Object sam, Object tub) {
+    Cell arg = Cell.orBail(sam);
+    return Parse.coldFun(arg.head, getContext().slammer(Cell.orBail(arg.tail)), tub);
+  }
+}
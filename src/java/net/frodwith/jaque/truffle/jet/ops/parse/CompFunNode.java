@@ -0,0 +1,22 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class CompFunNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object fun(Object raq, Object sam) {
+    Cell arg = Cell.orBail(sam);
+    return Parse.compFun(getContext().slammer(Cell.orBail(raq)),
+                         Cell.orBail(arg.head),
+                         getContext().slammer(Cell.orBail(arg.tail)));
+  }
+}
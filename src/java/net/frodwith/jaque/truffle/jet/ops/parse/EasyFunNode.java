@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class EasyFunNode extends BinaryOpNode {
+  @Specialization
+  protected Object fun(Object huf, Object tub) {
+    return Parse.easyFun(huf, tub);
+  }
+}
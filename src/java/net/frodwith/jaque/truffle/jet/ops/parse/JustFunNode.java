@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class JustFunNode extends BinaryOpNode {
+  @Specialization
+  protected Object fun(Object daf, Object tub) {
+    return Parse.justFun(daf, tub);
+  }
+}
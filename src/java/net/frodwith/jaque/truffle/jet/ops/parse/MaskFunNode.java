@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class MaskFunNode extends BinaryOpNode {
+  @Specialization
+  protected Object fun(Object bud, Object tub) {
+    return Parse.maskFun(bud, tub);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.jet.UnaryOpNode;
+
+public abstract class NextNode extends UnaryOpNode {
+  @Specialization
+  protected Object next(Object tub) {
+    return Parse.next(tub);
+  }
+}
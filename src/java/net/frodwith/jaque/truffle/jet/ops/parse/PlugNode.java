@@ -0,0 +1,19 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class PlugNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object plug(Object vex, Object sab) {
+    return Parse.plug(Cell.orBail(vex), getContext().slammer(Cell.orBail(sab)));
+  }
+}
@@ -0,0 +1,19 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class PoseNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object pose(Object vex, Object sab) {
+    return Parse.pose(Cell.orBail(vex), () -> getContext().kick(sab, 2L));
+  }
+}
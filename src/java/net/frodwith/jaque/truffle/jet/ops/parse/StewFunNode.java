@@ -0,0 +1,21 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class StewFunNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object fun(Object tub, Object con) {
+    // the treap of rules is the head of the gate's context
+    Object rule = Parse.stewRule(Cell.orBail(con).head, tub);
+    return ( null == rule ) ? Parse.fail(tub) : getContext().slam(Cell.orBail(rule), tub);
+  }
+}
@@ -0,0 +1,24 @@
+package net.frodwith.jaque.truffle.jet.ops.parse;
+
+import com.oracle.truffle.api.dsl.NodeField;
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Cell;
+import net.frodwith.jaque.data.Parse;
+import net.frodwith.jaque.data.Trel;
+import net.frodwith.jaque.truffle.Context;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+@NodeField(name="context", type=Context.class)
+public abstract class StirFunNode extends BinaryOpNode {
+  public abstract Context getContext();
+
+  @Specialization
+  protected Object fun(Object sam, Object tub) {
+    Trel arg = Trel.orBail(sam);
+    return Parse.stirFun(arg.p,
+                         getContext().slammer(Cell.orBail(arg.q)),
+                         getContext().slammer(Cell.orBail(arg.r)),
+                         tub);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.treap;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Treap;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class ByHasNode extends BinaryOpNode {
+  @Specialization
+  protected long has(Object a, Object b) {
+    return Treap.BY.has(a, b);
+  }
+}
@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.treap;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Treap;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class ByIntNode extends BinaryOpNode {
+  @Specialization
+  protected Object int_(Object a, Object b) {
+    return Treap.BY.int_(a, b);
+  }
+}
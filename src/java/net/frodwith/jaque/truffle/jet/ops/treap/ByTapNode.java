@@ -0,0 +1,13 @@
+package net.frodwith.jaque.truffle.jet.ops.treap;
+
+import com.oracle.truffle.api.dsl.Specialization;
+
+import net.frodwith.jaque.data.Treap;
+import net.frodwith.jaque.truffle.jet.BinaryOpNode;
+
+public abstract class ByTapNode extends BinaryOpNode {
+  @Specialization
+  protected Object tap(Object a, Object b) {
+    return Treap.BY.tap(a, b);
+  }
+}
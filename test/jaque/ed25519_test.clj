@@ -0,0 +1,269 @@
+(ns jaque.ed25519-test
+  (:require [jaque.noun :refer [noun]]
+            [clojure.test :refer :all])
+  (:import (net.frodwith.jaque Ed25519)
+           (net.frodwith.jaque.data Atom)
+           java.security.MessageDigest
+           java.util.Arrays
+           java.util.Random))
+
+(defn- unhex ^bytes [^String s]
+  (byte-array (for [i (range 0 (count s) 2)]
+                (unchecked-byte (Integer/parseInt (subs s i (+ i 2)) 16)))))
+
+(defn- le
+  "Bytes, least significant first, as an atom."
+  [^bytes b]
+  (noun (BigInteger. 1 (byte-array (reverse b)))))
+
+(defn- same? [a b] (Atom/equals a b))
+
+(defn- sha512 ^bytes [& bs]
+  (let [md (MessageDigest/getInstance "SHA-512")]
+    (doseq [^bytes b bs] (.update md b))
+    (.digest md)))
+
+; RFC 8032, section 7.1: secret key (the seed), public key, message, signature
+(def ^:private vectors
+  [["9d61b19deffd5a60ba844af492ec2cc44449c5697b326919703bac031cae7f60"
+    "d75a980182b10ab7d54bfed3c964073a0ee172f3daa62325af021a68f707511a"
+    ""
+    "e5564300c360ac729086e2cc806e828a84877f1eb8e5d974d873e065224901555fb8821590a33bacc61e39701cf9b46bd25bf5f0595bbe24655141438e7a100b"]
+   ["4ccd089b28ff96da9db6c346ec114e0f5b8a319f35aba624da8cf6ed4fb8a6fb"
+    "3d4017c3e843895a92b70aa74d1b7ebc9c982ccf2ec4968cc0cd55f12af4660c"
+    "72"
+    "92a009a9f0d4cab8720e820b5f642540a2b27b5416503f8fb3762223ebdb69da085ac1e43e15996e458f3613d0f11d8c387b2eaeb4302aeeb00d291612bb0c00"]
+   ["c5aa8df43f9f837bedb7442f31dcb7b166d38535076f094b85ce3a2e0b4458f7"
+    "fc51cd8e6218a1a38da47ed00230f0580816ed13ba3303ac5deb911548908025"
+    "af82"
+    "6291d657deec24024827e69c3abe01a30ce548a284743a445e3680d7db5ac3ac18ff9b538d16f290ae67f760984dc6594a7c15e9716ed28dc027beceea1ec40a"]])
+
+(deftest rfc8032-bytes-test
+  (doseq [[sk pk msg sig] vectors]
+    (let [pub  (byte-array 32)
+          priv (byte-array 64)
+          out  (byte-array 64)
+          m    (unhex msg)]
+      (.ed25519_create_keypair Ed25519/ed pub priv (unhex sk))
+      (is (Arrays/equals (unhex pk) pub))
+      (.ed25519_sign Ed25519/ed out m (alength m) pub priv)
+      (is (Arrays/equals (unhex sig) out))
+      (is (= 1 (.ed25519_verify Ed25519/ed out m (alength m) pub)))
+      (aset-byte out 0 (unchecked-byte (bit-xor 1 (aget out 0))))
+      (is (= 0 (.ed25519_verify Ed25519/ed out m (alength m) pub))))))
+
+(deftest rfc8032-atom-test
+  ; the jets take the same bytes as little-endian atoms. TEST 1's message
+  ; is empty, which is the atom 0.
+  (doseq [[sk pk msg sig] vectors]
+    (let [sk  (le (unhex sk))
+          pk  (le (unhex pk))
+          m   (le (unhex msg))
+          sig (le (unhex sig))]
+      (is (same? pk (Atom/edPuck sk)))
+      (is (same? sig (Atom/edSign m sk)))
+      (is (= Atom/YES (Atom/edVeri sig m pk)))
+      (is (= Atom/NO (Atom/edVeri sig (Atom/mix 1 m) pk))))))
+
+; Edwards arithmetic over BigIntegers, slow but plain, for building points
+; the code under test should never make and for checking ++shar.
+
+(def ^:private ^BigInteger P (.subtract (.shiftLeft BigInteger/ONE 255) (biginteger 19)))
+(def ^:private ^BigInteger L (.add (.shiftLeft BigInteger/ONE 252)
+                                   (BigInteger. "27742317777372353535851937790883648493")))
+(defn- f+ [a b] (.mod (.add (biginteger a) (biginteger b)) P))
+(defn- f- [a b] (.mod (.subtract (biginteger a) (biginteger b)) P))
+(defn- f* [a b] (.mod (.multiply (biginteger a) (biginteger b)) P))
+(defn- f-inv [a] (.modInverse (biginteger a) P))
+(defn- f-pow [a e] (.modPow (biginteger a) (biginteger e) P))
+(def ^:private D (f* -121665 (f-inv 121666)))
+(def ^:private SQRT-M1 (f-pow 2 (.shiftRight (.subtract P BigInteger/ONE) 2)))
+(def ^:private O [BigInteger/ZERO BigInteger/ONE])
+
+(defn- add [[x1 y1] [x2 y2]]
+  (let [t (f* D (f* (f* x1 x2) (f* y1 y2)))]
+    [(f* (f+ (f* x1 y2) (f* y1 x2)) (f-inv (f+ 1 t)))
+     (f* (f+ (f* y1 y2) (f* x1 x2)) (f-inv (f- 1 t)))]))
+
+(defn- mul [k pt]
+  (let [^BigInteger k (biginteger k)]
+    (loop [i (dec (.bitLength k)), acc O]
+      (if (neg? i)
+        acc
+        (let [acc (add acc acc)]
+          (recur (dec i) (if (.testBit k i) (add acc pt) acc)))))))
+
+(defn- neg [[x y]] [(f- 0 x) y])
+
+(defn- x-for
+  "The x with this sign for y, or nil if y isn't on the curve."
+  [y sign]
+  (let [u (f* (f- (f* y y) 1) (f-inv (f+ (f* D (f* y y)) 1)))
+        x (f-pow u (.shiftRight (.add P (biginteger 3)) 3))
+        x (if (= (f* x x) u) x (f* x SQRT-M1))]
+    (when (= (f* x x) u)
+      (if (= sign (if (.testBit ^BigInteger x 0) 1 0)) x (f- 0 x)))))
+
+(def ^:private B (let [y (f* 4 (f-inv 5))] [(x-for y 0) y]))
+
+(defn- encode ^bytes [[^BigInteger x ^BigInteger y]]
+  (let [n (if (.testBit x 0) (.setBit y 255) y)
+        be (.toByteArray ^BigInteger n)]
+    (byte-array (for [i (range 32)]
+                  (let [j (- (alength be) 1 i)]
+                    (if (neg? j) 0 (aget be j)))))))
+
+(defn- scalar ^BigInteger [^bytes b]
+  (BigInteger. 1 (byte-array (reverse b))))
+
+(defn- scalar-bytes ^bytes [^BigInteger s]
+  (let [be (.toByteArray s)]
+    (byte-array (for [i (range 32)]
+                  (let [j (- (alength be) 1 i)]
+                    (if (neg? j) 0 (aget be j)))))))
+
+(defn- h-of [^bytes r ^bytes a ^bytes m]
+  (.mod (scalar (sha512 r a m)) L))
+
+(def ^:private torsion
+  "A point of order 8: [L]P for some P, so long as 4 times it isn't zero."
+  (let [rng (Random. 8)]
+    (loop []
+      (let [y  (f-inv (BigInteger. 255 rng))
+            x  (x-for y 0)
+            t  (when x (mul L [x y]))]
+        (if (and t (not= O (mul 4 t)))
+          t
+          (recur))))))
+
+(defn- secret
+  "The clamped scalar sign and shar use for this seed."
+  ^BigInteger [^bytes seed]
+  (let [h (sha512 seed)]
+    (aset-byte h 0 (unchecked-byte (bit-and (aget h 0) 248)))
+    (aset-byte h 31 (unchecked-byte (bit-or 64 (bit-and (aget h 31) 127))))
+    (scalar (Arrays/copyOf h 32))))
+
+(defn- random-seed ^bytes [^Random rng]
+  (let [b (byte-array 32)] (.nextBytes rng b) b))
+
+(defn- random-message ^bytes [^Random rng]
+  (let [b (byte-array (.nextInt rng 100))] (.nextBytes rng b) b))
+
+(defn- keypair [seed]
+  (let [pub (byte-array 32), priv (byte-array 64)]
+    (.ed25519_create_keypair Ed25519/ed pub priv seed)
+    [pub priv]))
+
+(defn- sign ^bytes [^bytes m [pub priv]]
+  (let [sig (byte-array 64)]
+    (.ed25519_sign Ed25519/ed sig m (alength m) pub priv)
+    sig))
+
+(defn- verify [^bytes sig ^bytes m ^bytes pub]
+  (= 1 (.ed25519_verify Ed25519/ed sig m (alength m) pub)))
+
+(defn- verify* [[s m pub]] (verify s m pub))
+
+(deftest sign-test
+  ; S = h*a + r mod L, which signing works out without BigInteger
+  (let [rng (Random. 57)]
+    (dotimes [_ 40]
+      (let [seed       (random-seed rng)
+            m          (random-message rng)
+            [pub priv] (keypair seed)
+            r          (.mod (scalar (sha512 (Arrays/copyOfRange ^bytes priv 32 64) m)) L)
+            rb         (encode (mul r B))
+            s          (.mod (.add (.multiply (h-of rb pub m) (secret seed)) r) L)]
+        (is (Arrays/equals (byte-array (concat rb (scalar-bytes s))) (sign m [pub priv])))))))
+
+(deftest curve-test
+  ; the reference arithmetic agrees with the code under test
+  (is (= O (mul L B)))
+  (is (= O (mul 8 torsion)))
+  (let [seed (unhex (ffirst vectors))]
+    (is (Arrays/equals ^bytes (first (keypair seed)) (encode (mul (secret seed) B))))))
+
+(deftest shar-test
+  (let [rng (Random. 25519)]
+    (dotimes [_ 10]
+      (let [a   (random-seed rng)
+            b   (random-seed rng)
+            pa  (Atom/edPuck (le a))
+            pb  (Atom/edPuck (le b))
+            ab  (Atom/edShar pb (le a))
+            ; X25519 of b's clamped scalar and a's u = (1+y)/(1-y)
+            [_ y] (mul (secret b) (mul (secret a) B))
+            u   (f* (f+ 1 y) (f-inv (f- 1 y)))]
+        (is (same? ab (Atom/edShar pa (le b))))
+        (is (same? (noun u) ab))))))
+
+; signatures verification has to get right, each with a name
+
+(defn- forged
+  "A valid signature with a bit of the message flipped after signing."
+  [rng]
+  (let [k (keypair (random-seed rng))
+        m (random-message rng)
+        s (sign m k)
+        m (if (zero? (alength ^bytes m))
+            (byte-array [1])
+            (doto (aclone ^bytes m) (aset-byte 0 (unchecked-byte (bit-xor 1 (aget ^bytes m 0))))))]
+    [s m (first k)]))
+
+(defn- valid [rng]
+  (let [k (keypair (random-seed rng))
+        m (random-message rng)]
+    [(sign m k) m (first k)]))
+
+(defn- with-s
+  "A valid signature with S replaced by (f S)."
+  [rng f]
+  (let [[^bytes s m pub] (valid rng)
+        s' (f (scalar (Arrays/copyOfRange s 32 64)))
+        ^bytes out (aclone s)]
+    (System/arraycopy (scalar-bytes s') 0 out 32 32)
+    [out m pub]))
+
+(defn- small-r
+  "R is a point of order 8 and S is h*a, so S*B = h*A but not R + h*A."
+  [rng]
+  (let [seed (random-seed rng)
+        a    (secret seed)
+        pub  (first (keypair seed))
+        m    (random-message rng)
+        r    (encode torsion)
+        s    (.mod (.multiply (h-of r pub m) a) L)]
+    [(byte-array (concat r (scalar-bytes s))) m pub]))
+
+(defn- mixed-r
+  "R is r*B plus a point of order 8, otherwise signed honestly, so S*B is
+  off from R + h*A by that small-order point."
+  [rng]
+  (let [seed (random-seed rng)
+        a    (secret seed)
+        pub  (first (keypair seed))
+        m    (random-message rng)
+        rr   (.mod (BigInteger. 256 ^Random rng) L)
+        r    (encode (add (mul rr B) torsion))
+        s    (.mod (.add rr (.multiply (h-of r pub m) a)) L)]
+    [(byte-array (concat r (scalar-bytes s))) m pub]))
+
+(def ^:private kinds
+  {:valid        valid
+   :forged       forged
+   :s-plus-l     #(with-s % (fn [s] (.add ^BigInteger s L)))
+   :s-top-bits   #(with-s % (fn [s] (.add ^BigInteger s (.shiftLeft L 3))))
+   :small-r      small-r
+   :mixed-r      mixed-r})
+
+(deftest single-test
+  ; what verification says about each kind
+  (let [rng (Random. 32)]
+    (dotimes [_ 5]
+      (is (verify* ((:valid kinds) rng)))
+      (is (not (verify* ((:forged kinds) rng))))
+      (is (verify* ((:s-plus-l kinds) rng)))
+      (is (not (verify* ((:s-top-bits kinds) rng))))
+      (is (not (verify* ((:small-r kinds) rng))))
+      (is (not (verify* ((:mixed-r kinds) rng)))))))
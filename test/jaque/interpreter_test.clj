@@ -2,26 +2,42 @@
   (:refer-clojure :exclude [atom])
   (:require [clojure.test :refer :all]
             [jaque.noun :refer :all])
-  (:import net.frodwith.jaque.Bail
-           net.frodwith.jaque.truffle.Context
+  (:import (net.frodwith.jaque Bail Caller)
+           com.google.common.cache.Cache
+           com.oracle.truffle.api.dsl.UnsupportedSpecializationException
+           (net.frodwith.jaque.blok Block Optimizer Pull Slam)
+           (net.frodwith.jaque.truffle Context Context$Tier)
            (net.frodwith.jaque.truffle.driver Arm AxisArm)
-           (net.frodwith.jaque.truffle.nodes.jet DecrementNodeGen AddNodeGen SubtractNodeGen LessThanNodeGen)))
+           (net.frodwith.jaque.data Cell)
+           (net.frodwith.jaque.truffle.jet.def Dec Add Sub Lth Turn)
+           (net.frodwith.jaque.truffle.jet.def.parse StewFun)
+           net.frodwith.jaque.truffle.jet.def.ut.Fond))
 
 (def math-kernel-formula
   (noun [7 [1 :kmat] 7 [8 [1 1 :kmat] 10 [:fast 1 :kmat [1 0] 0] 0 1] 8 [1 [7 [8 [1 0 0] [1 6 [5 [1 0] 0 12] [0 13] 9 2 [0 2] [[8 [9 47 0 7] 9 2 [0 4] [0 28] 0 11] 4 0 13] 0 7] 0 1] 10 [:fast 1 :add [0 7] 0] 0 1] [7 [8 [1 0 0] [1 6 [6 [5 [0 12] 0 13] [1 1] 1 0] [6 [8 [1 6 [5 [1 0] 0 28] [1 0] 6 [6 [6 [5 [1 0] 0 29] [1 1] 1 0] [6 [9 2 [0 2] [0 6] [[8 [9 47 0 15] 9 2 [0 4] [0 60] 0 11] 8 [9 47 0 15] 9 2 [0 4] [0 61] 0 11] 0 15] [1 0] 1 1] 1 1] [1 0] 1 1] 9 2 0 1] [1 0] 1 1] 1 1] 0 1] 10 [:fast 1 :lth [0 7] 0] 0 1] [7 [8 [1 0] [1 10 [:memo 1 0] 8 [1 6 [8 [9 10 0 15] 9 2 [0 4] [[0 30] 7 [0 3] 1 3] 0 11] [1 1] 8 [8 [9 47 0 15] 9 2 [0 4] [0 30] 0 11] 8 [9 4 0 31] 9 2 [0 4] [[7 [0 3] 9 2 [0 6] [0 14] [0 2] 0 31] 7 [0 3] 9 2 [0 6] [0 14] [8 [9 47 0 31] 9 2 [0 4] [0 6] 0 11] 0 31] 0 11] 9 2 0 1] 0 1] 10 [:fast 1 :fib [0 7] 0] 0 1] [7 [8 [1 0 0] [1 6 [5 [1 0] 0 13] [0 12] 9 2 [0 2] [[8 [9 47 0 7] 9 2 [0 4] [0 28] 0 11] 8 [9 47 0 7] 9 2 [0 4] [0 29] 0 11] 0 7] 0 1] 10 [:fast 1 :sub [0 7] 0] 0 1] 7 [8 [1 0] [1 6 [5 [1 0] 0 6] [0 0] 8 [1 0] 8 [1 6 [5 [0 30] 4 0 6] [0 6] 9 2 [0 2] [4 0 6] 0 7] 9 2 0 1] 0 1] 10 [:fast 1 :dec [0 7] 0] 0 1] 10 [:fast 1 :math [0 3] [:add 9 4 0 1] [:sub 9 46 0 1] [:dec 9 47 0 1] [:fib 9 22 0 1] 0] 0 1]))
 
-(def context (Context. (into-array Arm 
-                                   [(AxisArm. "kmat/math/dec" 2 DecrementNodeGen)
-                                    (AxisArm. "kmat/math/add" 2 AddNodeGen)
-                                    (AxisArm. "kmat/math/sub" 2 SubtractNodeGen)
-                                    (AxisArm. "kmat/math/lth" 2 LessThanNodeGen)])))
+(def math-arms
+  [(AxisArm. "kmat/math/dec" 2 Dec)
+   (AxisArm. "kmat/math/add" 2 Add)
+   (AxisArm. "kmat/math/sub" 2 Sub)
+   (AxisArm. "kmat/math/lth" 2 Lth)])
+
+(defn make-context
+  "A fresh context running on tier (default blok), with the given jet arms."
+  ([] (make-context Context$Tier/BLOK math-arms))
+  ([tier arms] (make-context tier arms nil))
+  ([tier arms caller]
+   (let [c (Context.)]
+     (set! (.-tier c) tier)
+     (.wake c (into-array Arm arms) caller false)
+     c)))
+
+(def context (make-context))
 
 (defn nock [bus fol]
   (.nock context bus fol))
 
-(deftest test-nock
-  (testing "examples from nock tutorial"
-    (doseq [[[sub fom] res msg]
+(def tutorial-examples
             [[[[[4 5] [6 14 15]] [0 7]]
               [14 15]
               "sky blue, sun east"]
@@ -70,7 +86,11 @@
              [[42 [8 [1 0] 8 [1 6 [5 [0 7] 4 0 6] [0 6] 9 2 [0 2] [4 0 6] 0 7] 9 2 0 1]]
               41
               "decrement"]
-             ]]
+             ])
+
+(defn run-nock-tests [nock]
+  (testing "examples from nock tutorial"
+    (doseq [[[sub fom] res msg] tutorial-examples]
       (is (= (nock (noun sub) (noun fom)) (noun res)) msg)))
 
   (testing "bad-fragment"
@@ -80,3 +100,222 @@
     (let [ken (nock 0 math-kernel-formula)
           r   (nock ken (noun [8 [9 22 0 1] 9 2 [0 4] [1 15] 0 11]))]
       (is (= 610 r)))))
+
+(deftest test-nock
+  (run-nock-tests nock))
+
+(deftest test-tiers
+  (doseq [tier [Context$Tier/NOSE Context$Tier/CHECK]]
+    (testing (str tier)
+      (let [c (make-context tier math-arms)]
+        (run-nock-tests #(.nock c %1 %2))))))
+
+(defn- recorder [slogs]
+  (reify Caller
+    (kernel [_ gate sample] (throw (Bail.)))
+    (slog [_ tank] (swap! slogs conj tank))))
+
+(deftest test-check-hints-once
+  (let [slogs  (clojure.core/atom [])
+        caller (reify Caller
+                 (kernel [_ gate sample] (throw (Bail.)))
+                 (slog [_ tank] (swap! slogs conj tank)))
+        c      (make-context Context$Tier/CHECK math-arms caller)]
+    (is (= 7 (.nock c 0 (noun [10 [:slog 1 0 :hi] 1 7]))))
+    (is (= [(noun :hi)] @slogs) "check mode slogs once, not once per tier")))
+
+(deftest test-cons-order
+  ;; both halves of a cell are computed head first, whatever the tier, so
+  ;; hints in them fire in the same order everywhere
+  (doseq [tier [Context$Tier/BLOK Context$Tier/NOSE]
+          optimize [true false]]
+    (let [slogs (clojure.core/atom [])
+          c     (make-context tier math-arms (recorder slogs))]
+      (set! (.-optimize c) optimize)
+      (is (= (noun [1 2 3])
+             (.nock c 0 (noun [[10 [:slog [1 0] 1 1] 1 1]
+                               [10 [:slog [1 0] 1 2] 1 2]
+                               10 [:slog [1 0] 1 3] 1 3]))))
+      (is (= [1 2 3] @slogs) (str tier)))))
+
+(deftest test-tail-eval
+  ;; a nock 2 with a computed formula, in tail position and not
+  (doseq [optimize [true false]]
+    (let [c (make-context)]
+      (set! (.-optimize c) optimize)
+      (is (= 42 (.nock c (noun [[1 42] 0]) (noun [2 [0 1] 0 2]))))
+      (is (= (noun [43 0]) (.nock c (noun [[1 42] 0]) (noun [[4 2 [0 1] 0 2] 1 0])))))))
+
+(defn- nock-or-bail [c sub fol]
+  (try (.nock c (noun sub) (noun fol))
+       (catch Bail e ::bail)
+       ;; what a bloc node throws on a noun it can't handle, e.g. [4 0 1] on a cell
+       (catch UnsupportedSpecializationException e ::bail)))
+
+;; formulas the optimizer and the pull/slam fusions must not change,
+;; including whether they crash
+(def optimizer-examples
+  (concat
+    (map first tutorial-examples)
+    [[0 [0 0]]
+     [0 [7 [0 0] 1 5]]
+     [0 [8 [0 0] 1 5]]
+     [0 [[0 0] 1 5]]
+     [42 [7 [0 2] 1 5]]
+     [[1 2] [7 [4 0 1] 1 5]]
+     [[1 2] [7 [[0 1] 0 0] 0 2]]
+     [42 [6 [1 2] [1 0] 1 1]]
+     [42 [2 [0 1] 1 1 5]]
+     [[[0 6] 0 0] [7 [0 1] 0 1]]
+     [[[1 42] 0] [2 [0 1] 0 2]]
+     [[[1 42] 0] [[4 2 [0 1] 0 2] 1 0]]
+     [[[1 42] 0] [9 2 0 1]]
+     [[0 [1 42] 0] [9 2 0 3]]
+     [[[1 42] 0] [9 2 0 0]]
+     [[[1 42] 0] [9 5 0 1]]
+     [0 [8 [1 [0 6] 0 0] 9 2 [0 4] [1 9] 0 11]]
+     [0 [8 [1 [4 0 6] 0 0] 9 2 [0 4] [1 9] 0 11]]
+     [0 [8 [1 [0 6] 0 0] 9 2 [0 4] [0 0] 0 11]]
+     [0 [8 [1 [0 6] 0 0] 9 2 [0 4] [1 9] 0 0]]
+     [42 [8 [1 0] 8 [1 6 [5 [0 7] 4 0 6] [0 6] 9 2 [0 2] [4 0 6] 0 7] 9 2 0 1]]
+     [0 [8 [1 0] 8 [1 6 [5 [0 0] 4 0 6] [0 6] 9 2 [0 2] [4 0 6] 0 7] 9 2 0 1]]]))
+
+(deftest test-optimizer
+  (let [on  (make-context)
+        off (doto (make-context) (-> .-optimize (set! false)))]
+    (is (.-optimize on))
+    (is (not (.-optimize off)))
+    (doseq [[sub fol] optimizer-examples]
+      (is (= (nock-or-bail off sub fol) (nock-or-bail on sub fol))
+          (str "optimizing " (pr-str fol))))
+    (testing "crashes survive optimization"
+      (is (= ::bail (nock-or-bail on 0 [7 [0 0] 1 5])))
+      (is (= ::bail (nock-or-bail on 0 [8 [1 [0 6] 0 0] 9 2 [0 4] [0 0] 0 11]))))
+    (testing "math kernel"
+      (let [f [8 [9 22 0 1] 9 2 [0 4] [1 15] 0 11]]
+        (is (= 610
+               (.nock on (.nock on 0 math-kernel-formula) (noun f))
+               (.nock off (.nock off 0 math-kernel-formula) (noun f))))))))
+
+(deftest test-kick-shapes
+  (let [ops (fn [fol] (map class (.-body (Block/compile (noun fol)))))]
+    (is (some #{Pull} (ops [9 2 0 3])))
+    (is (some #{Slam} (ops [8 [1 [0 6] 0 0] 9 2 [0 4] [1 9] 0 11])))
+    (is (some #{Slam} (ops [9 2 [0 2] [4 0 6] 0 7])))
+    (is (some #{Pull} (map class (.-body (Optimizer/optimize (Block/compile (noun [7 [0 3] 9 2 0 1]))))))
+        "Frag then Pull folds into one Pull")))
+
+;; Jets against the nock they stand in for: gates hung off the math kernel
+;; with %fast hints, run once in a context that has no jet for them and once
+;; in one that does. The decoy batteries can only give the right answer if
+;; the jet ran instead of them.
+
+(defn- gate-under
+  "A gate with battery, whose context is the core par (at +7), registered
+  under name."
+  [c par battery name]
+  (.nock c par (noun [7 [8 [1 0 0] [1 battery] 0 1] 10 [:fast 1 name [0 7] 0] 0 1])))
+
+(defn- slam [c ^Cell gate sample]
+  (.nock c (Cell. (.head gate) (Cell. sample (.tail ^Cell (.tail gate)))) (noun [9 2 0 1])))
+
+(def decoy (noun [1 42]))
+
+;; ++turn: |-  ?~  a  ~  [i=(b i.a) t=$(a t.a)]
+(def turn-battery
+  (noun [6 [5 [1 0] 0 12]
+           [1 0]
+           [8 [0 13] 9 2 [0 4] [0 56] 0 11]
+           9 2 [0 2] [[0 25] 0 13] 0 7]))
+
+;; slogs its sample and gives back one more
+(def slog-battery (noun [10 [:slog [1 0] 0 6] 4 0 6]))
+
+(defn- run-turn [arms battery]
+  (let [slogs (clojure.core/atom [])
+        c     (make-context Context$Tier/BLOK arms (recorder slogs))
+        turn  (gate-under c (.nock c 0 math-kernel-formula) battery :turn)
+        r     (slam c turn (Cell. (noun [1 2 3 4 5 0]) (Cell. slog-battery (Cell. 0 0))))]
+    [r @slogs]))
+
+(deftest test-turn-jet
+  (let [jets   (conj math-arms (AxisArm. "kmat/math/turn" 2 Turn))
+        expect [(noun [2 3 4 5 6 0]) [1 2 3 4 5]]]
+    (is (= expect (run-turn math-arms turn-battery)) "the nock")
+    (is (= expect (run-turn jets turn-battery)) "the jet")
+    (is (= expect (run-turn jets decoy)) "the jet, without the nock to fall back on")))
+
+;; the %fun gate of ++stew, over [bat [tub [hel [wor stew]]]]:
+;;   ?~  q.tub  (fail tub)
+;;   |-  ?~  hel  (fail tub)
+;;   ?:  =(p.n.hel i.q.tub)  (q.n.hel tub)
+;;   ?:  (wor i.q.tub p.n.hel)  $(hel l.hel)  $(hel r.hel)
+;; with only single characters for keys, recurring by editing hel
+(def stew-fun-battery
+  (noun [6 [5 [1 0] 0 13]
+           [[0 12] 1 0]
+           6 [5 [1 0] 0 14]
+           [[0 12] 1 0]
+           6 [5 [0 56] 0 26]
+           [8 [0 57] 9 2 [0 4] [0 14] 0 11]
+           6 [8 [0 30] 9 2 [0 4] [[0 58] 0 120] 0 11]
+           [9 2 [0 2] [0 6] [0 58] 0 15]
+           9 2 [0 2] [0 6] [0 59] 0 15]))
+
+(defn- rule
+  "A rule that takes one character and produces tag."
+  [tag]
+  (Cell. (noun [[0 12] [1 0] [0 7] [0 12] 0 27]) (Cell. 0 tag)))
+
+(def stew-hel
+  (let [node (fn [k l r] (Cell. (Cell. (long k) (rule (long k))) (Cell. l r)))]
+    (node \m (node \d (node \b 0 0) (node \f 0 0)) (node \t 0 (node \x 0 0)))))
+
+(def stew-tubs
+  (for [t ["b" "dog" "f" "m" "tx" "x" "a" "c" "n" "z" ""]]
+    (Cell. (noun [1 1]) (reduce #(Cell. (long %2) %1) 0 (reverse t)))))
+
+(defn- run-stew [arms battery]
+  (let [c    (make-context Context$Tier/BLOK arms)
+        ken  (.nock c 0 math-kernel-formula)
+        wor  (.nock c ken (noun [9 10 0 1]))
+        stew (gate-under c ken (noun [0 6]) :stew)
+        fun  (.nock c (Cell. stew-hel (Cell. wor stew))
+                    (noun [7 [8 [1 0 0] [1 battery] 0 1] 10 [:fast 1 :fun [0 31] 0] 0 1]))]
+    (doall (map #(slam c fun %) stew-tubs))))
+
+(deftest test-check-ut-memo
+  ;; a ut jet (++fond here) over a door hung off the math kernel. Check mode
+  ;; has to compute it on both tiers: if nose saved its answer, blok would
+  ;; find it in the memo and never run the arm.
+  (let [c      (make-context Context$Tier/CHECK
+                             (conj math-arms (AxisArm. "kmat/math/van/fond" 2 Fond)))
+        misses (clojure.core/atom 0)
+        saves  (clojure.core/atom 0)
+        memo   (.-utMemo c)
+        van    (gate-under c (.nock c 0 math-kernel-formula) (noun [0 6]) :van)
+        fond   (gate-under c van (noun [4 0 13]) :fond)]
+    (set! (.-utMemo c)
+          (reify Cache
+            (getIfPresent [_ k]
+              (let [v (.getIfPresent memo k)]
+                (when (nil? v) (swap! misses inc))
+                v))
+            (put [_ k v]
+              (swap! saves inc)
+              (.put memo k v))))
+    (is (= 42 (slam c fond (noun [1 41]))))
+    (is (= 2 @misses) "nose and blok both compute")
+    (is (= 1 @saves) "only blok saves")
+    (is (= 42 (slam c fond (noun [1 41]))))
+    (is (= 2 @misses) "the next check hits blok's save on both tiers")))
+
+(deftest test-stew-jet
+  ;; the treap of rules is the head of the %fun gate's context, not the
+  ;; sample of the stew gate (which is 0 here)
+  (let [jets (conj math-arms (AxisArm. "kmat/math/stew/fun" 2 StewFun))
+        nock (run-stew math-arms stew-fun-battery)]
+    (is (= (noun [[1 1] 0 98 [1 1] 0]) (first nock)))
+    (is (= (noun [[1 1] 0]) (last nock)))
+    (is (= nock (run-stew jets stew-fun-battery)) "the jet")
+    (is (= nock (run-stew jets decoy)) "the jet, without the nock to fall back on")))
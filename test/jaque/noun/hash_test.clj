@@ -1,10 +1,35 @@
 (ns jaque.noun.hash-test
-  (:refer-clojure :exclude [atom dec cat inc])
-  (:require [jaque.constants  :refer :all]
-            [jaque.noun.box   :refer :all]
-            [jaque.noun.hash  :refer :all]
-            [jaque.noun.motes :refer [defmote]]
-            [clojure.test     :refer :all]))
+  (:refer-clojure :exclude [atom])
+  (:require [jaque.noun :refer [noun]]
+            [clojure.test :refer :all])
+  (:import (net.frodwith.jaque.data Atom Hash Jam Noun)
+           java.security.MessageDigest
+           java.util.Random))
+
+; the names these tests were written against, over data.Hash. Atoms are
+; boxed in data.Atom so that = compares indirect ones by value.
+(defn- raw [a] (if (instance? Atom a) (.value ^Atom a) a))
+(defn atom [a] (Atom. (noun a)))
+(def a0 (atom 0))
+(defn mug [a] (atom (long (Noun/mug (raw a)))))
+(defn shay [len ruz] (atom (Hash/shay (raw len) (raw ruz))))
+(defn shax [ruz] (atom (Hash/shax (raw ruz))))
+(defn shas [sal ruz] (atom (Hash/shas (raw sal) (raw ruz))))
+
+; ++shaf and ++sham aren't jetted, so these are the hoon
+(defn shaf [sal ruz]
+  (let [haz (raw (shas sal ruz))]
+    (atom (Atom/mix ^Object (Atom/end (byte 7) 1 haz) ^Object (Atom/rsh (byte 7) 1 haz)))))
+
+(defn sham [yux]
+  (let [yux (raw yux)]
+    (if (Noun/isAtom yux)
+      (shaf (noun :mash) yux)
+      (shaf (noun :sham) (Jam/jam yux)))))
+
+(defmacro ^:private defmote [& names]
+  `(do ~@(for [n names]
+           `(def ~(symbol (str "%" n)) (noun ~(keyword n))))))
 
 (deftest mug-test
   (is (= (atom 1097343833) (mug (noun [0 0]))))
@@ -12,6 +37,28 @@
   (is (= (atom 763078933)  (mug (noun [[69 42] 31337]))))
   (is (= (atom 18652612)   (mug a0))))
 
+;; vere's mug of an atom, FNV-1 over its bytes, for checking the cached one
+(defn- fnv-mug [a]
+  (let [bytes (Atom/toByteArray a)]
+    (loop [off (unchecked-int 2166136261)]
+      (let [has (reduce #(unchecked-multiply-int (unchecked-int (bit-xor %1 (bit-and %2 0xff)))
+                                                 (unchecked-int 16777619))
+                        off bytes)
+            out (bit-xor (bit-and (bit-shift-right has 31) 1) (bit-and has 0x7fffffff))]
+        (if (zero? out) (recur (unchecked-inc-int off)) out)))))
+
+(deftest cached-mug-test
+  (let [r (Random. 19)
+        n Atom/MUG_CACHE_WORDS]
+    (doseq [words [3 (dec n) n (inc n) 1000]]
+      (let [a (noun (.setBit (BigInteger. (* 32 (dec words)) r) (dec (* 32 words))))
+            b (aclone ^ints a)]
+        (is (= words (alength ^ints a)))
+        (is (= (fnv-mug a) (Atom/mug a)) (str words " words"))
+        (is (= (fnv-mug a) (Atom/mug a)) (str words " words, again"))
+        (is (not (identical? a b)))
+        (is (= (Atom/mug a) (Atom/mug b)) (str words " words, another array"))))))
+
 (defmote absolutely positively mosdefinitely)
 
 (deftest shay-test
@@ -53,3 +100,112 @@
          (sham %positively)))
   (is (= (atom 0x18ae1771143f27348c56c104de76d128)
          (sham %mosdefinitely))))
+
+; The same functions over BigIntegers and whole byte arrays, for checking
+; the word-at-a-time hashing against.
+
+(defn- big [a]
+  (BigInteger. 1 (byte-array (reverse (Atom/toByteArray a)))))
+
+(defn- same? [^BigInteger x a]
+  (Atom/equals (noun x) a))
+
+(defn- le-bytes
+  "The low len bytes of x, least significant first."
+  [^BigInteger x len]
+  (let [be (.toByteArray x)]
+    (byte-array (for [i (range len)]
+                  (let [j (- (alength be) 1 i)]
+                    (if (neg? j) 0 (aget be j)))))))
+
+(defn- met3 [^BigInteger x]
+  (quot (+ 7 (.bitLength x)) 8))
+
+(defn- digest [algo ^BigInteger x len]
+  (.digest (MessageDigest/getInstance algo) (le-bytes x len)))
+
+(defn- ref-shay [x len]
+  (BigInteger. 1 (byte-array (reverse (digest "SHA-256" x len)))))
+
+(defn- ref-shax [x]
+  (ref-shay x (met3 x)))
+
+(defn- ref-shas [^BigInteger sal x]
+  (ref-shax (.xor sal ^BigInteger (ref-shax x))))
+
+(def ^:private og-a (big (noun :og-a)))
+(def ^:private og-b (big (noun :og-b)))
+
+(defn- ref-raw
+  "++raw:og, as in hoon.hoon: a 256-bit block at a time, each from the one
+  before, with the last one cut down to what's left."
+  [^BigInteger a b]
+  (loop [b   b
+         c   (ref-shas og-a (.xor (biginteger b) a))
+         off 0
+         out BigInteger/ZERO]
+    (if (zero? b)
+      out
+      (let [^BigInteger d (ref-shas og-b (.xor (biginteger b) (.xor a ^BigInteger c)))
+            n (min b 256)
+            d (if (< b 256) (.and d (.subtract (.shiftLeft BigInteger/ONE n) BigInteger/ONE)) d)]
+        (recur (- b n) d (+ off 256) (.or out (.shiftLeft ^BigInteger d off)))))))
+
+(defn- ref-rad [^BigInteger a ^BigInteger b]
+  (let [met (.bitLength b)]
+    (loop [a a]
+      (let [^BigInteger c (ref-raw a met)]
+        (if (neg? (.compareTo c b)) c (recur (.add a BigInteger/ONE)))))))
+
+(defn- random-big [^Random r bits]
+  (BigInteger. (int bits) r))
+
+(deftest hash-words-test
+  ; lengths around words and the 4096-byte scratch buffer, and lengths
+  ; longer and shorter than the atom itself
+  (let [r (Random. 24)]
+    (doseq [bytes [0 1 3 4 5 31 32 33 64 4095 4096 4097 10001]
+            len   [bytes (+ bytes 3) (quot bytes 2)]]
+      (let [x (random-big r (* 8 bytes))
+            a (noun x)]
+        (is (same? (ref-shay x len) (Hash/shay len a)))
+        (is (same? (BigInteger. 1 (byte-array (reverse (digest "SHA-512" x len))))
+                   (Hash/shal len a)))
+        (is (same? (BigInteger. 1 ^bytes (digest "SHA-1" x (met3 x)))
+                   (Hash/shan a)))))))
+
+(deftest shan-zero-test
+  ; met(3, 0) is 0, so this is the sha-1 of no bytes at all, read big-end
+  ; first. It used to hash the single zero byte toByteArray gave back.
+  (is (Atom/equals (noun 0xda39a3ee5e6b4b0d3255bfef95601890afd80709) (Hash/shan 0)))
+  (is (not (Atom/equals (noun 0x5ba93c9db0cff93f52b521d7420e43f6eda2784f) (Hash/shan 0)))))
+
+(deftest shas-shaw-test
+  (let [r (Random. 42)]
+    (dotimes [_ 20]
+      (let [sal (random-big r 40)
+            ruz (random-big r (.nextInt r 600))
+            len (long (.nextInt r 700))]
+        (is (same? (ref-shas sal ruz) (Hash/shas (noun sal) (noun ruz))))
+        (is (same? (ref-raw (ref-shas sal (.xor ruz (biginteger len))) len)
+                   (Hash/shaw (noun sal) len (noun ruz))))))))
+
+(deftest og-raw-test
+  ; whole blocks, a partial last block, and partial words within it
+  (let [r (Random. 256)]
+    (doseq [bits [0 1 31 32 33 255 256 257 288 511 512 513 1000 2048]
+            seed [BigInteger/ZERO (random-big r 30) (random-big r 300)]]
+      (let [out (Hash/raw (noun seed) bits)]
+        (is (same? (ref-raw seed bits) out))
+        (is (<= (Atom/met out) bits))))))
+
+(deftest og-rad-test
+  (let [r (Random. 7)]
+    (doseq [b [1 2 3 255 256 257 1000000 (random-big r 200) (random-big r 700)]
+            _ (range 3)]
+      (let [seed (random-big r 64)
+            b    (biginteger b)
+            c    (Hash/rad (noun seed) (noun b))]
+        (is (same? (ref-rad seed b) c))
+        (is (neg? (.compareTo (big c) b)))))
+    (is (thrown? net.frodwith.jaque.Bail (Hash/rad 5 0)))))
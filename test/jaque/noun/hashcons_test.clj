@@ -0,0 +1,43 @@
+(ns jaque.noun.hashcons-test
+  (:require [jaque.noun :refer [noun]]
+            [clojure.test :refer :all])
+  (:import (net.frodwith.jaque.data Cell Hashcons Noun)
+           (net.frodwith.jaque.truffle Context)))
+
+(defn- fresh []
+  (noun [[1 (.shiftLeft BigInteger/ONE 100)] [1 (.shiftLeft BigInteger/ONE 100)] 2 3]))
+
+(deftest intern-test
+  (let [h (Hashcons.)
+        a (.intern h (fresh))
+        b (.intern h (fresh))]
+    (is (Noun/equals (fresh) a))
+    (is (identical? a b))
+    (is (identical? (.head ^Cell a) (.head ^Cell (.tail ^Cell a))))))
+
+(deftest expunge-test
+  ; once nothing interned is reachable, its buckets go away
+  (let [h (Hashcons.)]
+    (.intern h (fresh))
+    (is (< 0 (.buckets h)))
+    (is (loop [i 0]
+          (System/gc)
+          (cond (zero? (.buckets h)) true
+                (= i 20)             false
+                :else                (do (Thread/sleep 10) (recur (inc i))))))))
+
+(deftest woken-test
+  ; a snapshot's batteries are already in locations. arvo's cores have to
+  ; end up pointing at those very objects, or every kick guard misses.
+  (let [c   (Context.)
+        bat (noun [[1 2] 0 1])
+        ; the same battery, as a different copy, in a core arvo reaches first
+        arvo (Cell. (Cell. (noun [[1 2] 0 1]) 0) (Cell. bat 1))]
+    (set! (.-hashcons c) (Hashcons.))
+    (.register c bat nil)
+    (let [woke ^Cell (.dedupWoken c arvo)
+          [k]  (seq (.keySet (.-locations c)))]
+      (is (Noun/equals arvo woke))
+      (is (identical? k (.head ^Cell (.head woke))))
+      (is (identical? k (.head ^Cell (.tail woke))))
+      (is (identical? k (.canonical (.-batteries c) (noun [[1 2] 0 1])))))))
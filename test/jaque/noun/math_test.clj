@@ -1,9 +1,30 @@
 (ns jaque.noun.math-test
-  (:refer-clojure :exclude [dec inc atom])
-  (:require [jaque.constants :refer :all]
-            [jaque.noun.box :refer :all]
-            [jaque.noun.math :refer :all]
-            [clojure.test :refer :all]))
+  (:refer-clojure :exclude [dec inc atom mod])
+  (:require [jaque.noun :refer [noun]]
+            [clojure.test :refer :all])
+  (:import net.frodwith.jaque.data.Atom
+           java.util.Random))
+
+; the names these tests were written against, over data.Atom
+(def yes Atom/YES)
+(def no  Atom/NO)
+(defn atom [a] (noun a))
+(def a0 0) (def a1 1) (def a2 2) (def a3 3) (def a4 4)
+(def a7 7) (def a9 9) (def a10 10)
+(defn add [a b] (Atom/add ^Object a ^Object b))
+(defn sub [a b] (Atom/sub ^Object a ^Object b))
+(defn inc [a] (Atom/increment ^Object a))
+(defn dec [a] (Atom/dec ^Object a))
+(defn bex [a] (Atom/bex (long a)))
+(defn vor [a b] (Atom/vor a b))
+(defn gor [a b] (Atom/gor a b))
+(defn dor [a b] (Atom/dor a b))
+(defn gth [a b] (if (pos? (Atom/compare ^Object a ^Object b)) yes no))
+(defn lth [a b] (if (neg? (Atom/compare ^Object a ^Object b)) yes no))
+(defn mul [a b] (Atom/mul ^Object a ^Object b))
+(defn div [a b] (Atom/div ^Object a ^Object b))
+(defn mod [a b] (Atom/mod ^Object a ^Object b))
+(defn dvr [a b] (Atom/dvr ^Object a ^Object b))
 
 (deftest add-test
   (is (= a4 (add a2 a2)))
@@ -55,7 +76,10 @@
   (is (= a1  (inc a0)))
   (is (= a2  (inc a1)))
   (is (= a10 (inc a9)))
-  (is (= (atom 225444443423) (inc (atom 225444443422)))))
+  (is (= (atom 225444443423) (inc (atom 225444443422))))
+  ; carrying out of the top word of an indirect atom
+  (is (Atom/equals (atom (.shiftLeft BigInteger/ONE 96))
+                   (inc (atom (.subtract (.shiftLeft BigInteger/ONE 96) BigInteger/ONE))))))
 
 (deftest dor-test
   (is (= yes (dor (noun 1)       (noun [0 0]))))
@@ -70,3 +94,67 @@
   (is (= no  (lth a1 a0)))
   (is (= no  (lth a10 a0)))
   (is (= yes (lth a3 a10))))
+
+(defn- same? [expected actual]
+  (Atom/equals (noun (biginteger expected)) actual))
+
+(def ^:private max64 0xffffffffffffffff)
+
+(defn- pow2 [n] (.shiftLeft BigInteger/ONE n))
+
+(defn- big [a]
+  (if (instance? Long a)
+    (.and (biginteger a) (biginteger 0xffffffffffffffff))
+    (let [^ints w a]
+      (reduce (fn [b i] (.or (.shiftLeft b 32) (biginteger (bit-and (aget w i) 0xffffffff))))
+              BigInteger/ZERO
+              (range (dec (alength w)) -1 -1)))))
+
+(deftest math-regression-test
+  (testing "direct multiplication overflows unsigned, not signed"
+    (is (same? (*' max64 max64) (mul (noun max64) (noun max64))))
+    (is (same? (*' 0x100000000 0x80000000) (mul 0x100000000 0x80000000))))
+  (testing "direct division is unsigned"
+    (let [r (dvr (noun max64) 2)]
+      (is (same? (quot max64 2) (.head r)))
+      (is (same? 1 (.tail r))))
+    (is (same? (quot max64 3) (div (noun max64) 3)))
+    (is (same? (rem max64 10) (mod (noun max64) 10))))
+  (testing "single-word remainders aren't sign-extended"
+    (let [x (+' (pow2 64) 0xfffffffd)]
+      (is (same? 0xfffffffe (mod (noun x) 0xffffffff)))
+      (is (same? 0xfffffffe (.tail (dvr (noun x) 0xffffffff))))))
+  (testing "x mod y is x when x < y"
+    (let [x (+' (pow2 64) 1)
+          y (pow2 65)]
+      (is (same? x (mod (noun x) (noun y))))
+      (is (same? 0 (.head (dvr (noun x) (noun y)))))
+      (is (same? x (.tail (dvr (noun x) (noun y)))))))
+  (testing "a remainder with its top bit set fits"
+    (let [y (+' (pow2 95) 1)
+          r (pow2 95)
+          x (+' (*' 5 y) r)
+          q (dvr (noun x) (noun y))]
+      (is (same? 5 (.head q)))
+      (is (same? r (.tail q))))))
+
+(defn- random-atom [^Random r words]
+  (noun (BigInteger. (int (* 32 words)) r)))
+
+; sizes either side of jaque.limbDiv, jaque.bigMul and jaque.bigDiv
+(deftest mul-div-test
+  (let [r (Random. 12)]
+    (doseq [xw [1 2 3 7 13 20 50 70 130]
+            yw [1 2 5 7 8 9 12 30 49 65 100]
+            _  (range 3)]
+      (let [x (random-atom r xw)
+            y (random-atom r yw)
+            [bx by] [(big x) (big y)]]
+        (is (same? (.multiply bx by) (mul x y)))
+        (when-not (zero? (.signum by))
+          (let [[q m] (.divideAndRemainder bx by)
+                c     (dvr x y)]
+            (is (same? q (div x y)))
+            (is (same? m (mod x y)))
+            (is (same? q (.head c)))
+            (is (same? m (.tail c)))))))))
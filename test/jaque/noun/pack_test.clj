@@ -1,9 +1,33 @@
 (ns jaque.noun.pack-test
   (:refer-clojure :exclude [atom])
-  (:require [jaque.noun.pack :refer :all]
-            [jaque.constants :refer :all]
-            [jaque.noun.box :refer :all]
-            [clojure.test :refer :all]))
+  (:require [jaque.noun :refer [noun]]
+            [clojure.test :refer :all])
+  (:import (net.frodwith.jaque.data Atom Cell Jam Noun)
+           (java.io ByteArrayOutputStream)
+           (java.nio BufferOverflowException ByteBuffer ByteOrder)
+           (java.nio.channels Channels)
+           (java.nio.file Files OpenOption)
+           (java.nio.file.attribute FileAttribute)
+           (java.util Arrays Random)))
+
+; the names these tests were written against, over data.Jam and data.Atom
+(defn atom [a] (noun a))
+(def a1 1)
+(def a2 2)
+(defn jam [a] (Jam/jam a))
+(defn cue [a] (Jam/cue ^Object a))
+(defn rub [a b] (Atom/rub a b))
+
+; ++mat, from hoon.hoon
+(defn mat [a]
+  (if (Atom/isZero a)
+    (noun [1 1])
+    (let [b (long (Atom/met a))
+          c (long (Atom/met b))]
+      (Cell. (+ c c b)
+             (Atom/cat (byte 0) (Atom/bex c)
+                       (Atom/mix ^Object (Atom/end (byte 0) (dec c) b)
+                                 ^Object (Atom/lsh (byte 0) (int (dec c)) a)))))))
 
 (deftest jam-test
   (is (= (atom 817)             (jam (noun [1 1]))))
@@ -24,3 +48,125 @@
   (is (= (noun [1 2])                   (cue (atom 4657))))
   (is (= (noun [0 19])                  (cue (atom 39689))))
   (is (= (noun [[1 [13 14]] [13 14] 1]) (cue (atom 880218685981125)))))
+
+(defn- random-noun
+  "A random noun about size cells big, sharing some subtrees and with some
+  indirect atoms, built without recursing."
+  [^Random r size]
+  (loop [pool [] n 0]
+    (if (= n size)
+      (peek pool)
+      (let [leaf (case (.nextInt r 4)
+                   0 (noun (.nextInt r 300))
+                   1 (noun (BigInteger. (+ 65 (.nextInt r 200)) r))
+                   nil)
+            pick #(if (empty? pool) (noun %) (nth pool (.nextInt r (count pool))))]
+        (recur (conj pool (or leaf (Cell. (pick 0) (pick 1)))) (inc n))))))
+
+(deftest cue-jam-test
+  (let [r (Random. 15)]
+    (doseq [size [1 2 5 20 100 1000]
+            _    (range 10)]
+      (let [a (random-noun r size)]
+        (is (Noun/equals a (cue (jam a))))))))
+
+(deftest jam-shares-equal-atoms-test
+  ; jam backreferences an indirect atom it has seen before by value, as vere
+  ; does, even when the two are different arrays
+  (let [x (noun (.shiftLeft BigInteger/ONE 100))
+        y (noun (.shiftLeft BigInteger/ONE 100))
+        z (noun (.setBit (.shiftLeft BigInteger/ONE 100) 3))]
+    (is (not (identical? x y)))
+    (is (Atom/equals (jam (Cell. x x)) (jam (Cell. x y))))
+    (is (< (Atom/met (jam (Cell. x y))) (Atom/met (jam (Cell. x z)))))
+    (is (Noun/equals (Cell. x y) (cue (jam (Cell. x y)))))))
+
+(defn- long-list [n]
+  (loop [i n, l 0]
+    (if (zero? i) l (recur (dec i) (Cell. i l)))))
+
+(deftest deep-jam-test
+  ; a million-cell list, far deeper than the java stack
+  (let [n 1000000
+        l (long-list n)
+        c (cue (jam l))]
+    (is (loop [a l, b c, i 0]
+          (cond (= i n)            (and (= 0 a) (= 0 b))
+                (not (instance? Cell b)) false
+                (not (= (.head ^Cell a) (.head ^Cell b))) false
+                :else              (recur (.tail ^Cell a) (.tail ^Cell b) (inc i)))))))
+
+(defn- jam-to-channel [a]
+  (let [out (ByteArrayOutputStream.)
+        n   (Jam/jam a (Channels/newChannel out))]
+    [n (.toByteArray out)]))
+
+(defn- jam-to-buffer [a ^long size]
+  (let [buf (.order (ByteBuffer/allocate size) ByteOrder/LITTLE_ENDIAN)
+        n   (Jam/jam a buf)]
+    [n (Arrays/copyOf (.array buf) (.position buf))]))
+
+(def ^:private stream-nouns
+  ; small ones, and ones whose jams run over the writer's 2048-word chunk
+  (let [r (Random. 17)]
+    [(noun [1 1])
+     (noun [[1 [13 14]] [13 14] 1])
+     (random-noun r 100)
+     (random-noun r 5000)
+     (long-list 10000)
+     (noun (BigInteger. 200000 r))]))
+
+(deftest jam-stream-test
+  (is (< (* 4 2048) (alength (Atom/toByteArray (jam (last stream-nouns))))))
+  (is (< (* 4 2048) (alength (Atom/toByteArray (jam (long-list 10000))))))
+  (doseq [a stream-nouns]
+    (let [bytes (Atom/toByteArray (jam a))
+          size  (alength bytes)]
+      (is (= size (Atom/met (byte 3) (jam a)) (Jam/jamBytes a)))
+      (let [[n out] (jam-to-channel a)]
+        (is (= size n))
+        (is (Arrays/equals bytes ^bytes out)))
+      (let [[n out] (jam-to-buffer a size)]
+        (is (= size n))
+        (is (Arrays/equals bytes ^bytes out)))
+      (is (thrown? BufferOverflowException (jam-to-buffer a (dec size)))))))
+
+(def ^:private cue-buffer-nouns
+  ; jams of every length mod 4, so the last word is sometimes partial
+  (let [r    (Random. 16)
+        all  (concat [(noun 0) (noun [1 1]) (noun [[1 [13 14]] [13 14] 1])]
+                     (map #(random-noun r %) (range 1 60))
+                     stream-nouns)
+        size #(Jam/jamBytes %)]
+    (mapcat #(take 3 %) (vals (group-by #(mod (size %) 4) all)))))
+
+(defn- jam-buffer
+  "The bytes of a's jam in a little-endian buffer, after pad junk bytes,
+  with the position at the jam."
+  [a ^long pad direct]
+  (let [bytes (Atom/toByteArray (jam a))
+        n     (+ pad (alength bytes))
+        buf   (.order (if direct (ByteBuffer/allocateDirect n) (ByteBuffer/allocate n))
+                      ByteOrder/LITTLE_ENDIAN)]
+    (dotimes [_ pad] (.put buf (unchecked-byte 0xa5)))
+    (.put buf bytes)
+    (.position buf (int pad))))
+
+(deftest cue-buffer-test
+  (is (= #{0 1 2 3} (set (map #(mod (Jam/jamBytes %) 4) cue-buffer-nouns))))
+  (doseq [a      cue-buffer-nouns
+          pad    [0 1 3 6]
+          direct [false true]]
+    (let [expect (cue (jam a))
+          buf    (jam-buffer a pad direct)]
+      (is (Noun/equals expect (Jam/cue ^ByteBuffer buf))
+          (str "pad " pad (when direct ", direct")))
+      (is (= pad (.position buf)) "cue leaves the buffer alone"))))
+
+(deftest cue-file-test
+  (doseq [a cue-buffer-nouns]
+    (let [f (Files/createTempFile "jaque" ".jam" (make-array FileAttribute 0))]
+      (try
+        (Files/write f (Atom/toByteArray (jam a)) (make-array OpenOption 0))
+        (is (Noun/equals (cue (jam a)) (Jam/cueFile f)))
+        (finally (Files/delete f))))))
@@ -0,0 +1,82 @@
+(ns jaque.noun.parallel-test
+  (:require [clojure.test :refer :all])
+  (:import (net.frodwith.jaque.data Cell Noun Parallel)
+           (java.util ArrayDeque IdentityHashMap Random)))
+
+; The forking only happens past jaque.parallelThreshold cells and with more
+; than one worker; the test profile sets both low so these nouns split.
+
+(defn- random-noun
+  "The same random noun for the same seed: trees, long lists and shared
+  subtrees, built without recursing."
+  [seed size]
+  (let [r (Random. seed)]
+    (loop [pool [] n 0]
+      (if (= n size)
+        (peek pool)
+        (let [pick #(if (empty? pool) % (nth pool (.nextInt r (count pool))))
+              c    (case (.nextInt r 3)
+                     0 (Cell. (pick 0) (pick 1))
+                     1 (Cell. (pick 0) (if (empty? pool) 0 (peek pool)))
+                     2 (Cell. (long (.nextInt r 1000)) (if (empty? pool) 0 (peek pool))))]
+          (recur (conj pool c) (inc n)))))))
+
+(defn- same-mugs?
+  "Do a and b, built the same way, have the same mug in every cell?"
+  [a b]
+  (let [s    (ArrayDeque.)
+        seen (IdentityHashMap.)]
+    (.push s [a b])
+    (loop []
+      (if (.isEmpty s)
+        true
+        (let [[x y] (.pop s)]
+          (if (and (instance? Cell x) (nil? (.put seen x x)))
+            (if (= (.mug ^Cell x) (.mug ^Cell y))
+              (do (.push s [(.head ^Cell x) (.head ^Cell y)])
+                  (.push s [(.tail ^Cell x) (.tail ^Cell y)])
+                  (recur))
+              false)
+            (recur)))))))
+
+(deftest parallel-mug-test
+  (doseq [[seed size] [[1 10] [2 1000] [3 100000] [4 300000]]]
+    (let [a (random-noun seed size)
+          b (random-noun seed size)]
+      (is (= (Noun/mug b) (Parallel/mug a)))
+      (is (same-mugs? a b)))))
+
+(deftest parallel-list-mug-test
+  ; a long spine with big heads, some of them shared
+  (let [build (fn [] (let [h (random-noun 5 5000)]
+                       (loop [i 0, l 0]
+                         (if (= i 200)
+                           l
+                           (recur (inc i) (Cell. (if (even? i) h (random-noun i 2000)) l))))))
+        a (build)
+        b (build)]
+    (is (= (Noun/mug b) (Parallel/mug a)))
+    (is (same-mugs? a b))))
+
+(deftest parallel-equals-test
+  (doseq [[seed size] [[1 10] [2 1000] [3 100000]]]
+    (let [a (random-noun seed size)
+          b (random-noun seed size)]
+      (is (Parallel/equals a b))
+      (is (not (Parallel/equals (Cell. a 0) (Cell. (random-noun seed size) 1))))
+      (is (not (Parallel/equals a (random-noun (inc seed) size)))))))
+
+(deftest parallel-list-equals-test
+  ; the same list twice, then with one big head out of 200 different
+  (let [build (fn [odd] (let [h (random-noun 5 5000)]
+                          (loop [i 0, l 0]
+                            (if (= i 200)
+                              l
+                              (recur (inc i)
+                                     (Cell. (cond (even? i) h
+                                                  (= i odd) (random-noun (inc i) 2000)
+                                                  :else     (random-noun i 2000))
+                                            l))))))]
+    (is (Parallel/equals (build -1) (build -1)))
+    (is (not (Parallel/equals (build -1) (build 151))))
+    (is (not (Parallel/equals (build 151) (build -1))))))
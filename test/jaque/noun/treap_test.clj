@@ -0,0 +1,177 @@
+(ns jaque.noun.treap-test
+  (:require [jaque.noun :refer [noun]]
+            [clojure.test :refer :all])
+  (:import (net.frodwith.jaque.data Atom Cell Noun Treap)
+           java.util.Random))
+
+; The hoon these jets replace, transliterated from 151's ++by and ++in so
+; there's something independent to check them against. ++by orders keys
+; with gor and ++in with hor; both prioritize with vor.
+
+(defn- yes? [x] (= Atom/YES x))
+(defn- cell? [x] (instance? Cell x))
+(defn- gor [a b] (yes? (Atom/gor a b)))
+(defn- vor [a b] (yes? (Atom/vor a b)))
+(defn- same? [a b] (Noun/equals a b))
+
+(defn- hor [a b]
+  (if (cell? a)
+    (cond (not (cell? b))                           false
+          (same? (.head ^Cell a) (.head ^Cell b))   (gor (.tail ^Cell a) (.tail ^Cell b))
+          :else                                     (gor (.head ^Cell a) (.head ^Cell b)))
+    (if (cell? b) true (gor a b))))
+
+(defn- n [a] (.head ^Cell a))
+(defn- l [a] (.head ^Cell (.tail ^Cell a)))
+(defn- r [a] (.tail ^Cell (.tail ^Cell a)))
+(defn- node [n l r] (Cell. n (Cell. l r)))
+(defn- p [a] (.head ^Cell a))
+(defn- q [a] (.tail ^Cell a))
+
+(def ^:private by {:key p, :ord gor, :jet Treap/BY})
+(def ^:private in {:key identity, :ord hor, :jet Treap/IN})
+
+(defn- put
+  "++put; b is [key value] for ++by, the key for ++in."
+  [{:keys [key ord] :as t} a b]
+  (if-not (cell? a)
+    (node b 0 0)
+    (cond
+      (same? (key b) (key (n a)))
+        (if (same? b (n a)) a (node b (l a) (r a)))
+      (ord (key b) (key (n a)))
+        (let [c (put t (l a) b)]
+          (if (vor (key (n a)) (key (n c)))
+            (node (n a) c (r a))
+            (node (n c) (l c) (node (n a) (r c) (r a)))))
+      :else
+        (let [c (put t (r a) b)]
+          (if (vor (key (n a)) (key (n c)))
+            (node (n a) (l a) c)
+            (node (n c) (node (n a) (l a) (l c)) (r c)))))))
+
+(defn- find-node [{:keys [key ord]} a b]
+  (loop [a a]
+    (when (cell? a)
+      (cond (same? b (key (n a))) (n a)
+            (ord b (key (n a)))   (recur (l a))
+            :else                 (recur (r a))))))
+
+(defn- del [{:keys [key ord] :as t} a b]
+  (letfn [(join [x y]
+            (cond (not (cell? x)) y
+                  (not (cell? y)) x
+                  (vor (key (n x)) (key (n y))) (node (n x) (l x) (join (r x) y))
+                  :else                         (node (n y) (join x (l y)) (r y))))]
+    (cond (not (cell? a))         0
+          (same? b (key (n a)))   (join (l a) (r a))
+          (ord b (key (n a)))     (node (n a) (del t (l a) b) (r a))
+          :else                   (node (n a) (l a) (del t (r a) b)))))
+
+(defn- uni [{:keys [key ord] :as t} a b]
+  (let [$ (partial uni t)]
+    (cond
+      (not (cell? b)) a
+      (not (cell? a)) b
+      (vor (key (n a)) (key (n b)))
+        (cond (same? (key (n b)) (key (n a)))
+                (node (n b) ($ (l a) (l b)) ($ (r a) (r b)))
+              (ord (key (n b)) (key (n a)))
+                ($ (node (n a) ($ (l a) (node (n b) (l b) 0)) (r a)) (r b))
+              :else
+                ($ (node (n a) (l a) ($ (r a) (node (n b) 0 (r b)))) (l b)))
+      :else
+        (cond (same? (key (n a)) (key (n b)))
+                (node (n b) ($ (l a) (l b)) ($ (r a) (r b)))
+              (ord (key (n a)) (key (n b)))
+                ($ (r a) (node (n b) ($ (node (n a) (l a) 0) (l b)) (r b)))
+              :else
+                ($ (l a) (node (n b) (l b) ($ (node (n a) 0 (r a)) (r b))))))))
+
+(defn- tap [a b]
+  ; ++tap: $(a r.a, b [n.a $(a l.a)])
+  (if (cell? a) (tap (r a) (Cell. (n a) (tap (l a) b))) b))
+
+(defn- gas [t a b]
+  (reduce (partial put t) a b))
+
+(defn- elems
+  "The nodes of a, in order."
+  [a]
+  (loop [x (tap a 0), acc ()]
+    (if (cell? x) (recur (q x) (conj acc (n x))) (reverse acc))))
+
+(defn- canonical
+  "The treap holding just these nodes. Since gor, hor and vor are total
+  there's only one, so whatever ++uni, ++int and ++del build must be it."
+  [t nodes]
+  (gas t 0 nodes))
+
+; keys where gor and hor disagree: cells, and cells next to atoms
+(defn- random-key [^Random rng]
+  (case (.nextInt rng 4)
+    0 (long (.nextInt rng 50))
+    1 (noun [(.nextInt rng 6) (.nextInt rng 50)])
+    2 (noun [[(.nextInt rng 3) (.nextInt rng 3)] (.nextInt rng 8)])
+    3 (noun (BigInteger. 80 rng))))
+
+(defn- random-node [{:keys [key]} ^Random rng]
+  (if (= key p)
+    (Cell. (random-key rng) (long (.nextInt rng 3)))
+    (random-key rng)))
+
+(defn- random-nodes [t ^Random rng]
+  (repeatedly (.nextInt rng 40) #(random-node t rng)))
+
+(defn- jet-gas [{:keys [^Treap jet]} a nodes]
+  (.gas jet a (reduce (fn [l x] (Cell. x l)) 0 (reverse nodes))))
+
+(deftest known-map-test
+  ; from the old nlr tests, which were checked against a real ship
+  (let [a (.put Treap/BY 0 (noun [97 1]))
+        b (.put Treap/BY a (noun [98 2]))
+        c (.put Treap/BY 0 (noun [7171949 31337]))
+        d (.put Treap/BY c (noun [26984 42]))]
+    (is (same? a (noun [[97 1] 0 0])))
+    (is (same? b (noun [[98 2] [[97 1] 0 0] 0])))
+    (is (same? c (noun [[7171949 31337] 0 0])))
+    (is (same? d (noun [[7171949 31337] 0 [26984 42] 0 0])))))
+
+(deftest hor-test
+  (let [rng (Random. 21)]
+    (dotimes [_ 2000]
+      (let [a (random-key rng)
+            b (random-key rng)]
+        (is (= (hor a b) (yes? (Atom/hor a b))))))))
+
+(deftest treap-test
+  (let [rng (Random. 151)]
+    (doseq [t [by in]
+            _ (range 150)]
+      (let [jet ^Treap (:jet t)
+            xs  (random-nodes t rng)
+            ys  (random-nodes t rng)
+            a   (gas t 0 xs)
+            b   (gas t 0 ys)
+            ka  (set (map (:key t) (elems a)))
+            x   (random-node t rng)
+            k   ((:key t) x)]
+        (is (same? a (jet-gas t 0 xs)))
+        (is (same? (put t a x) (.put jet a x)))
+        (is (= (if (find-node t a k) Atom/YES Atom/NO) (.has jet a k)))
+        (when (= t by)
+          (is (same? (if-let [f (find-node t a k)] (Cell. 0 (q f)) 0)
+                     (.get jet a k))))
+        (doseq [y (take 5 (elems a))]
+          (let [ky ((:key t) y)]
+            (is (same? y (.find jet a ky)))
+            (is (same? (del t a ky) (.del jet a ky)))
+            (is (same? (canonical t (remove #(same? ky ((:key t) %)) (elems a)))
+                       (.del jet a ky)))))
+        (is (same? (del t a k) (.del jet a k)))
+        (is (same? (uni t a b) (.uni jet a b)))
+        (is (same? (canonical t (concat (elems a) (elems b))) (.uni jet a b)))
+        ; ++int keeps b's nodes for the keys both have
+        (is (same? (canonical t (filter #(ka ((:key t) %)) (elems b)))
+                   (.int_ jet a b)))
+        (is (same? (tap a (noun [1 2 0])) (.tap jet a (noun [1 2 0]))))))))